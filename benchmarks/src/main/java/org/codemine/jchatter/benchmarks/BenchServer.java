@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter.benchmarks;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * A stand in {@link org.bukkit.Server} used by the benchmarks so {@link org.bukkit.Bukkit} can be called
+ * without a running Spigot server.
+ * <p>Commands passed to {@link org.bukkit.Bukkit#dispatchCommand(org.bukkit.command.CommandSender, String)} are
+ * counted and dropped, so the numbers only show the cost of JChatter itself.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public final class BenchServer {
+
+    private static final Logger logger = Logger.getLogger("JChatterBench");
+
+    private static List<Player> players = Collections.emptyList();
+
+    private static long dispatched;
+
+    private static boolean installed;
+
+    private static final Player.Spigot spigot = new Player.Spigot() {
+        @Override
+        public void sendMessage(BaseComponent component) {
+
+            dispatched++;
+        }
+
+        @Override
+        public void sendMessage(BaseComponent... components) {
+
+            dispatched++;
+        }
+    };
+
+    private BenchServer() {
+
+    }
+
+    /**
+     * Installs the stub server into {@link org.bukkit.Bukkit}, Bukkit only allows this once per JVM so
+     * repeated calls just swap the online players.
+     *
+     * @param onlinePlayers the number of fake players that will be returned by {@link org.bukkit.Bukkit#getOnlinePlayers()}
+     */
+    public static synchronized void install(int onlinePlayers) {
+
+        List<Player> list = new ArrayList<>(onlinePlayers);
+        for (int i = 0; i < onlinePlayers; i++) {
+            list.add(fakePlayer("Player" + i, new UUID(0L, i)));
+        }
+        players = Collections.unmodifiableList(list);
+        dispatched = 0;
+
+        if (!installed) {
+            Bukkit.setServer(proxy(Server.class, new ServerHandler()));
+            installed = true;
+        }
+    }
+
+    /**
+     * Gets the number of commands and components dispatched since the last call to {@link #install(int)}
+     *
+     * @return the number of dispatched commands
+     */
+    public static long getDispatched() {
+
+        return dispatched;
+    }
+
+    /**
+     * Gets the fake players currently online.
+     *
+     * @return the online players
+     */
+    public static List<Player> getPlayers() {
+
+        return players;
+    }
+
+    private static Player fakePlayer(final String name, final UUID uuid) {
+
+        return proxy(Player.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+                switch (method.getName()) {
+                    case "getName":
+                    case "getDisplayName":
+                    case "toString":
+                        return name;
+                    case "getUniqueId":
+                        return uuid;
+                    case "spigot":
+                        return spigot;
+                    case "hashCode":
+                        return uuid.hashCode();
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return defaultValue(method.getReturnType());
+                }
+            }
+        });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+
+        if (type == boolean.class)
+            return true;
+        if (type == int.class)
+            return 0;
+        if (type == long.class)
+            return 0L;
+        if (type == double.class)
+            return 0D;
+        if (type == float.class)
+            return 0F;
+        if (type == String.class)
+            return "JChatterBench";
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+
+        return (T) Proxy.newProxyInstance(BenchServer.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static final class ServerHandler implements InvocationHandler {
+
+        private final ConsoleCommandSender console = proxy(ConsoleCommandSender.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+                if (method.getName().equals("getName"))
+                    return "CONSOLE";
+                return defaultValue(method.getReturnType());
+            }
+        });
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            switch (method.getName()) {
+                case "getOnlinePlayers":
+                    return players;
+                case "getConsoleSender":
+                    return console;
+                case "getLogger":
+                    return logger;
+                case "dispatchCommand":
+                    dispatched++;
+                    return true;
+                case "isPrimaryThread":
+                    return true;
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter.benchmarks;
+
+import org.bukkit.ChatColor;
+import org.codemine.jchatter.JChat;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the fluent building side of {@link org.codemine.jchatter.JChat}, colour code parsing, placeholder
+ * substitution and tooltip creation. Each operation builds a fresh message so the JSON is never rendered here.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BuildBenchmark {
+
+    private static final String COLORED_MOTD = "&a&lWelcome to &6&lThe Server&a, enjoy your &b&ostay &7and check out &e/help";
+
+    private static final String PLACEHOLDER_LINE = "&a&oHi %s hope you like the &6&o%s &a&oserver";
+
+    private static final List<String> LORE = Arrays.asList("&aFirst Lore Line ", "Second", "", "&bthird");
+
+    @Param({"Relicum"})
+    public String playerName;
+
+    @Param({"100"})
+    public int pageParts;
+
+    @Benchmark
+    public JChat coloredText() {
+
+        return new JChat().coloredText(COLORED_MOTD);
+    }
+
+    @Benchmark
+    public JChat thenWithValues() {
+
+        return new JChat().then(PLACEHOLDER_LINE, playerName, "Factions");
+    }
+
+    @Benchmark
+    public JChat itemTooltip() {
+
+        return new JChat("[ADMIN]").itemTooltip("&6The Display Name", LORE);
+    }
+
+    @Benchmark
+    public JChat pagedMessage() {
+
+        JChat page = new JChat("Page 1");
+        for (int i = 1; i < pageParts; i++) {
+            page.then(" [" + i + "]").color(ChatColor.GREEN).style(ChatColor.BOLD).command("/page " + i);
+        }
+        return page;
+    }
+
+    @Benchmark
+    public JChat multiLineTooltip() {
+
+        return new JChat("[HELP]").tooltip("&6Help", "&aUse /spawn to get home", "", "&bUse /shop to trade");
+    }
+}
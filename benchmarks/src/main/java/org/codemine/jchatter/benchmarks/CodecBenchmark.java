@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter.benchmarks;
+
+import org.bukkit.ChatColor;
+import org.codemine.jchatter.JChat;
+import org.codemine.jchatter.JChatCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading a message from the binary {@link org.codemine.jchatter.JChatCodec} encoding against parsing
+ * it back from its JSON with {@link org.codemine.jchatter.JChat#fromJSON(String)}, using the same message as
+ * {@link org.codemine.jchatter.benchmarks.SerializeBenchmark}.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CodecBenchmark {
+
+    private JChat message;
+    private byte[] encoded;
+    private String json;
+
+    @Setup
+    public void setup() {
+
+        message = new JChat("[")
+                .color(ChatColor.RED)
+                .style(ChatColor.BOLD)
+                .then("ADMIN")
+                .color(ChatColor.BLUE)
+                .style(ChatColor.UNDERLINE, ChatColor.ITALIC)
+                .command("/say hello")
+                .itemTooltip("&6The Display Name", Arrays.asList("&aFirst Lore Line ", "Second", "", "&bthird"))
+                .then("] ")
+                .color(ChatColor.RED)
+                .style(ChatColor.BOLD)
+                .then("Click \"here\" to visit the website")
+                .color(ChatColor.GRAY)
+                .link("http://www.spigotmc.org")
+                .tooltip("&aOpens the website");
+        encoded = JChatCodec.encode(message);
+        json = message.toJSONString();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+
+        return JChatCodec.encode(message);
+    }
+
+    @Benchmark
+    public JChat decode() {
+
+        return JChatCodec.decode(encoded);
+    }
+
+    @Benchmark
+    public JChat parseJson() {
+
+        return JChat.fromJSON(json);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter.benchmarks;
+
+import org.codemine.jchatter.JChat;
+import org.codemine.jchatter.JChatSender;
+import org.codemine.jchatter.SpigotChatSender;
+import org.codemine.jchatter.TellrawChatSender;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link org.codemine.jchatter.JChatSender#sendToAll(String)} fan out against the
+ * {@link BenchServer} stub with a configurable number of fake players online, using each of the built in senders.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SendBenchmark {
+
+    @Param({"1", "100", "500"})
+    public int players;
+
+    @Param({"tellraw", "spigot"})
+    public String sender;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+
+        BenchServer.install(players);
+        JChatSender.setSender(sender.equals("spigot") ? new SpigotChatSender() : new TellrawChatSender());
+        json = new JChat().coloredText("&6&lAnnouncement &aThe event starts in &c5 &aminutes").toJSONString();
+    }
+
+    @Benchmark
+    public void sendToAll() {
+
+        JChatSender.sendToAll(json);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandException;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * A group of players that messages can be sent to in one call, such as everyone in a world or everyone with a permission.
+ * <p>Audiences are live views of the indexes held by {@link org.codemine.jchatter.JChatAudiences}, so the members are always
+ * the players that currently match and sending only touches those players.
+ * <pre>
+ * {@code
+ *     Audience.permission("myplugin.staff").send(new JChat().coloredText("&c&lStaff &7A player needs help"));
+ *     Audience.world("world_nether").send(warning);
+ *     }
+ * </pre>
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public final class Audience {
+
+    private final String name;
+    private final Collection<Player> members;
+
+    Audience(final String name, final Collection<Player> members) {
+
+        this.name = name;
+        this.members = Collections.unmodifiableCollection(members);
+    }
+
+    /**
+     * Gets the audience of all online players.
+     *
+     * @return the {@link org.codemine.jchatter.Audience}
+     */
+    @SuppressWarnings("unchecked")
+    public static Audience all() {
+
+        return new Audience("all", (Collection<Player>) Bukkit.getOnlinePlayers());
+    }
+
+    /**
+     * Gets the audience of all players in a world.
+     *
+     * @param world the name of the world
+     * @return the {@link org.codemine.jchatter.Audience}
+     * @throws java.lang.IllegalStateException if JChatter is not enabled
+     */
+    public static Audience world(final String world) throws IllegalStateException {
+
+        return JChatter.getAudiences().world(world);
+    }
+
+    /**
+     * Gets the audience of all players with a permission.
+     * <p>The first request for a permission must be made on the main server thread.
+     *
+     * @param permission the permission node
+     * @return the {@link org.codemine.jchatter.Audience}
+     * @throws java.lang.IllegalStateException if JChatter is not enabled, or the permission is not indexed yet and this
+     *                                         is not the main thread
+     */
+    public static Audience permission(final String permission) throws IllegalStateException {
+
+        return JChatter.getAudiences().permission(permission, Bukkit.getOnlinePlayers());
+    }
+
+    /**
+     * Gets the audience of all players in a named group.
+     *
+     * @param group the name of the group
+     * @return the {@link org.codemine.jchatter.Audience}
+     * @throws java.lang.IllegalStateException if JChatter is not enabled
+     * @see JChatAudiences#addToGroup(String, org.bukkit.entity.Player)
+     */
+    public static Audience group(final String group) throws IllegalStateException {
+
+        return JChatter.getAudiences().group(group);
+    }
+
+    /**
+     * Gets the name of the audience
+     *
+     * @return the name, eg <tt>world:world_nether</tt>
+     */
+    public String getName() {
+
+        return name;
+    }
+
+    /**
+     * Gets the players currently in the audience, this is a live read only view.
+     *
+     * @return the members
+     */
+    public Collection<Player> getMembers() {
+
+        return members;
+    }
+
+    /**
+     * Gets the number of players currently in the audience.
+     *
+     * @return the number of players
+     */
+    public int size() {
+
+        return members.size();
+    }
+
+    /**
+     * Send a JSON message to every player in the audience.
+     *
+     * @param json the pre made message in JSON format
+     * @return the number of players the message was delivered to, 0 if it was queued
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    public int send(final String json) throws CommandException {
+
+        Validate.notNull(json, "You must pass a JSON formatted message to send");
+        return JChatSender.broadcast(members, json);
+    }
+
+    /**
+     * Send a message to every player in the audience.
+     *
+     * @param message the message
+     * @return the number of players the message was delivered to, 0 if it was queued
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    public int send(final JChat message) throws CommandException {
+
+        Validate.notNull(message, "The message can not be null");
+        return send(message.toJSONString());
+    }
+
+    /**
+     * Send a message to every player in the audience.
+     *
+     * @param message the message
+     * @return the number of players the message was delivered to, 0 if it was queued
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    public int send(final FrozenJChat message) throws CommandException {
+
+        Validate.notNull(message, "The message can not be null");
+        return send(message.toJSONString());
+    }
+
+    @Override
+    public String toString() {
+
+        return "Audience{" + name + ", " + members.size() + " players}";
+    }
+}
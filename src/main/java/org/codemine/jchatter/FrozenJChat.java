@@ -0,0 +1,212 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.command.CommandException;
+import org.bukkit.entity.Player;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * An immutable snapshot of a {@link org.codemine.jchatter.JChat} message, created using {@link JChat#freeze()}.
+ * <p>The JSON is rendered once when the snapshot is taken and stored in final fields, so a FrozenJChat can be
+ * handed to any thread without locking. Changes made to the original JChat after freezing do not affect it.
+ * This makes it possible to build messages in an async task and send them later from the main thread.
+ * <pre>
+ * {@code
+ *     FrozenJChat message = new JChat().coloredText("&a&lThe event has started").freeze();
+ *     // any thread
+ *     message.send(player);
+ *     }
+ * </pre>
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public final class FrozenJChat {
+
+    private final String jsonString;
+    private final String oldMessage;
+    private volatile byte[] jsonBytes;
+    private volatile String plain;
+    private volatile String ansi;
+
+    FrozenJChat(final String jsonString, final String oldMessage) {
+
+        this(jsonString, null, oldMessage);
+    }
+
+    FrozenJChat(final String jsonString, final byte[] jsonBytes, final String oldMessage) {
+
+        this.jsonString = jsonString;
+        this.jsonBytes = jsonBytes;
+        this.oldMessage = oldMessage;
+    }
+
+    /**
+     * Gets the JSON string representing the complete message.
+     *
+     * @return the JSON string, this is rendered once when the message was frozen
+     */
+    public String toJSONString() {
+
+        return jsonString;
+    }
+
+    /**
+     * Gets the UTF-8 encoded JSON representing the complete message.
+     * <p>The bytes are encoded at most once per snapshot and shared by every caller, the returned array
+     * <strong>must not</strong> be modified.
+     *
+     * @return the UTF-8 encoded JSON
+     */
+    public byte[] toJSONBytes() {
+
+        byte[] bytes = jsonBytes;
+        if (bytes == null) {
+            //Racing threads encode the same bytes, whichever is stored last wins
+            bytes = jsonString.getBytes(StandardCharsets.UTF_8);
+            jsonBytes = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the length in bytes of the UTF-8 encoded JSON.
+     *
+     * @return the number of bytes {@link #toJSONBytes()} returns
+     */
+    public int getJSONLength() {
+
+        return toJSONBytes().length;
+    }
+
+    /**
+     * Get a copy of the message in the Old style message syntax.
+     *
+     * @return the string containing the message in the old Format
+     * @see JChat#toOldMessageFormat()
+     */
+    public String toOldMessageFormat() {
+
+        return oldMessage;
+    }
+
+    /**
+     * Renders the message in the {@link org.codemine.jchatter.JChatFormat}.
+     * <p>The JSON and legacy formats are taken when the message is frozen, the others are rendered from the legacy
+     * format the first time they are asked for.
+     *
+     * @param format the {@link org.codemine.jchatter.JChatFormat} to render
+     * @return the message in the format
+     */
+    public String render(final JChatFormat format) {
+
+        Validate.notNull(format, "The format can not be null");
+        switch (format) {
+            case JSON:
+                return jsonString;
+            case LEGACY:
+                return oldMessage;
+            case PLAIN:
+                if (plain == null)
+                    plain = JChatFormat.plain(oldMessage);
+                return plain;
+            default:
+                if (ansi == null)
+                    ansi = JChatFormat.ansi(oldMessage);
+                return ansi;
+        }
+    }
+
+    /**
+     * Send the message to the {@link org.bukkit.entity.Player}.
+     *
+     * @param player the player the message is sent to
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    public void send(final Player player) throws CommandException {
+
+        Validate.notNull(player, "To send a JChat message you must pass a valid Player object");
+        JChatSender.sendToPlayer(player, jsonString);
+    }
+
+    /**
+     * Send the message to the player with the specified {@link java.util.UUID}.
+     *
+     * @param player the players full UUID
+     * @throws java.lang.NullPointerException      if the player is not found
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    public void send(final UUID player) throws NullPointerException, CommandException {
+
+        JChatSender.sendToPlayer(player, jsonString);
+    }
+
+    /**
+     * Send the message to all online players.
+     *
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    public void send() throws CommandException {
+
+        JChatSender.broadcast(jsonString);
+    }
+
+    /**
+     * Broadcast the message to all online players.
+     *
+     * @return the number of players the message was delivered to, 0 if the message was queued
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    public int broadcast() throws CommandException {
+
+        return JChatSender.broadcast(jsonString);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if (this == o) return true;
+        if (!(o instanceof FrozenJChat)) return false;
+        return jsonString.equals(((FrozenJChat) o).jsonString);
+    }
+
+    @Override
+    public int hashCode() {
+
+        return jsonString.hashCode();
+    }
+
+    @Override
+    public String toString() {
+
+        return jsonString;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter.Interfaces;
+
+import java.util.function.Consumer;
+
+/**
+ * Name: IBroadcastTransport.java Created: 18 October 2026
+ * Interface to carry network wide broadcasts between servers for the {@link org.codemine.jchatter.JChatBus}.
+ * <p>The bus hands the transport batches of already built messages as bytes, the transport only has to deliver each
+ * batch to every subscribed server, including the one that published it, and pass it to the receiver given when the
+ * transport was opened. JChatter ships {@link org.codemine.jchatter.JChatLoopbackTransport} which delivers within the
+ * same JVM, a transport built on plugin messaging channels or a message broker can be set using
+ * {@link org.codemine.jchatter.JChatBus#setTransport(IBroadcastTransport)}.
+ * <p>Batches are published from the main server thread, the receiver can be called from any thread.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public interface IBroadcastTransport {
+
+    /**
+     * Gets the name of the transport, used when logging which transport is in use.
+     *
+     * @return the name of the transport
+     */
+    String getName();
+
+    /**
+     * Start receiving batches published by any server.
+     *
+     * @param receiver called with each batch received
+     */
+    void open(Consumer<byte[]> receiver);
+
+    /**
+     * Publish a batch to every subscribed server.
+     *
+     * @param batch the encoded batch of messages
+     */
+    void publish(byte[] batch);
+
+    /**
+     * Stop receiving batches, the transport is not used again after it is closed.
+     */
+    void close();
+
+    /**
+     * Gets the largest batch in bytes the transport can carry, larger flushes are split over several batches.
+     * A single message bigger than this is still published on its own.
+     *
+     * @return the max batch size in bytes
+     */
+    default int getMaxBatchSize() {
+
+        return Integer.MAX_VALUE;
+    }
+}
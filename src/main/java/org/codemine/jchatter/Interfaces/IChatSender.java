@@ -26,15 +26,60 @@
 
 package org.codemine.jchatter.Interfaces;
 
+import org.bukkit.command.CommandException;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+
 /**
  * Name: IChatSender.java Created: 04 July 2014
- * More details to follow. This will be a simple Interface to allow you to create your own message senders, that
- * Integrate directly with JChat itself.
+ * Interface to allow you to create your own message senders, that Integrate directly with JChat itself.
+ * <p>A sender is responsible for delivering an already built JSON message to a player. JChatter ships two, one that
+ * uses the console and the tellraw command and one that hands the message straight to the player using the Spigot chat API.
+ * To use your own sender pass it to {@link org.codemine.jchatter.JChatSender#setSender(IChatSender)}, every
+ * message sent by JChat and {@link org.codemine.jchatter.JChatSender} will then go through it.
+ * <p>Senders are only called from the main server thread.
  *
  * @author Relicum
  * @version 0.0.1
  */
 public interface IChatSender {
 
+    /**
+     * Gets the name of the sender, used when logging which sender is in use.
+     *
+     * @return the name of the sender
+     */
+    String getName();
+
+    /**
+     * Send a JSON message to a player.
+     *
+     * @param player the {@link org.bukkit.entity.Player} to send the message to
+     * @param json   the pre made message in JSON format
+     * @return true if the message was delivered, false if not
+     * @throws org.bukkit.command.CommandException if there was a problem delivering the message
+     */
+    boolean send(Player player, String json) throws CommandException;
+
+    /**
+     * Send the same JSON message to many players.
+     * <p>Senders should convert the message into the form they deliver once and reuse it for every player.
+     * The default implementation just calls {@link #send(org.bukkit.entity.Player, String)} for each player.
+     *
+     * @param players the players to send the message to
+     * @param json    the pre made message in JSON format
+     * @return the number of players the message was delivered to
+     * @throws org.bukkit.command.CommandException if there was a problem delivering the message
+     */
+    default int broadcast(Collection<? extends Player> players, String json) throws CommandException {
+
+        int delivered = 0;
+        for (Player player : players) {
+            if (send(player, json))
+                delivered++;
+        }
+        return delivered;
+    }
 
 }
@@ -0,0 +1,51 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter.Interfaces;
+
+import org.bukkit.entity.Player;
+
+/**
+ * Name: IPlaceholderResolver.java Created: 18 October 2026
+ * Interface to supply the value of a named placeholder such as <strong>{balance}</strong> for a player.
+ * <p>Register resolvers with {@link org.codemine.jchatter.JChatPlaceholders#register(org.bukkit.plugin.Plugin, String, long, java.util.concurrent.TimeUnit, IPlaceholderResolver)}.
+ * A resolver is only called when a message being sent contains its placeholder, and its value is then cached for
+ * the player for the time given when it was registered, so expensive lookups are not repeated for every message.
+ * <p>Resolvers are called on the thread the message is sent from, which is not always the main server thread.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public interface IPlaceholderResolver {
+
+    /**
+     * Gets the value of the placeholder for a player.
+     *
+     * @param player the {@link org.bukkit.entity.Player} the message is being sent to
+     * @return the value, or null to leave the placeholder in the message as it is
+     */
+    String resolve(Player player);
+}
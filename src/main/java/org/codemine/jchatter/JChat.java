@@ -28,13 +28,18 @@
 
 package org.codemine.jchatter;
 
-import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
-
-import java.io.StringWriter;
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -108,13 +113,14 @@ import java.util.regex.Pattern;
  */
 public class JChat {
 
-    private final List<JChatPart> _jChatParts;
+    private static final Pattern _pattern = Pattern.compile("%s");
+
+    private final JChatParts _parts;
     private String _jsonString;
+    private byte[] _jsonBytes;
+    private String[] _formats;
     private boolean _dirty;
 
-    private Pattern _pattern = Pattern.compile("%s");
-    Pattern pattern = Pattern.compile("((?<full>((?<col>([&{1}][a-fklmnor0-9{1}]))?(?<stl>([&{1}])[a-fklmnor0-9{1}]){1,})))");
-
     /**
      * Instantiates a new JChat Object
      * <p>Messages are built in "parts" where all part share the same formatting and style.
@@ -124,8 +130,8 @@ public class JChat {
      */
     public JChat(final String firstPartText) {
 
-        _jChatParts = new ArrayList<>();
-        _jChatParts.add(new JChatPart(firstPartText));
+        _parts = new JChatParts();
+        _parts.add(firstPartText);
         _jsonString = null;
         _dirty = false;
     }
@@ -135,8 +141,8 @@ public class JChat {
      */
     public JChat() {
 
-        _jChatParts = new ArrayList<>();
-        _jChatParts.add(new JChatPart());
+        _parts = new JChatParts();
+        _parts.add(null);
         _jsonString = null;
         _dirty = false;
     }
@@ -150,12 +156,11 @@ public class JChat {
      */
     public JChat text(String text) {
 
-        JChatPart latest = latest();
-        if (latest.hasText()) {
+        if (hasText()) {
             throw new IllegalStateException("text for this message part is already set");
         }
-        latest.text = text;
-        _dirty = true;
+        _parts.text[_parts.latest()] = text;
+        changed();
         return this;
     }
 
@@ -194,9 +199,7 @@ public class JChat {
      */
     public JChat coloredText(String text) {
 
-        JChatPart latest = latest();
-
-        if (latest.hasText()) {
+        if (hasText()) {
             throw new IllegalStateException("text for this message part is already set");
         }
 
@@ -204,118 +207,27 @@ public class JChat {
             throw new IllegalStateException("this message text does not contain any color code use alternative method text instead");
         }
 
-        int max = text.length();
-        //First calculate the number of regions the input has
-        Matcher matcher = pattern.matcher(text);
-        int regionFound = 0;
-        while (matcher.find()) {
+        JChatLexer lexer = JChatLexer.lex(text);
 
-            if (max == matcher.end()) {
-                //Check the input does not end with a color or style code if it does throw an error
-                throw new IllegalArgumentException("Can not have color codes at the end of the text please remove them and run again");
-            }
-            regionFound++;
+        //Check the input does not end with a color or style code if it does throw an error
+        if (lexer.endsWithCodes()) {
+            throw new IllegalArgumentException("Can not have color codes at the end of the text please remove them and run again");
         }
 
-        matcher.reset();
-
-        // System.out.println("For the text " + text + " it has found " + regionFound + " regions");
-
-        String remaining = text;
-        int lastEnd = 0;
-        while (matcher.find()) {
-
-
-            //Start parsing input that only has a region
-
-            if (regionFound == 1) {
-
-                //if the regions found is 1 this means the region MUST start at the start of the input
-                //if it doesn't throw an error
-                if (matcher.start() != 0) {
-
-                    throw new IllegalArgumentException("The text line must start with a color or style code");
-                }
-                ChatColor color = ChatColor.WHITE;
-                List<ChatColor> style = new ArrayList<>();
-                String codeMatches = matcher.group().replaceAll("&", "");
-                //     System.out.println(codeMatches);
-                for (int i = 0; i < codeMatches.length(); i++) {
-
-
-                    char theCode = codeMatches.charAt(i);
-
-                    if (ChatColor.getByChar(theCode).isColor()) {
-
-                        color = ChatColor.getByChar(theCode);
-                    } else if (ChatColor.getByChar(theCode).isFormat()) {
-
-                        style.add(ChatColor.getByChar(theCode));
-
-                    }
-                }
-
-                latest().text = transAndStrip(text);
-                latest().color = color;
-                if (style.size() > 0)
-                    latest().styles.addAll(style);
-                _dirty = true;
-
-
-            }
-
-            //Parse input that has multiple regions
-
-            else {
-
-                //      System.out.println("Multi regions still to do");
-
-                String message = "";
-                remaining = text.substring(matcher.end(), max);
-
-                Matcher subMatcher = pattern.matcher(remaining);
-
-                if (subMatcher.find()) {
-                    //        System.out.println("End is " + matcher.end());
-                    //        System.out.println("Sub start is " + subMatcher.start());
-                    remaining = remaining.substring(0, subMatcher.start());
-                    message = transAndStrip(remaining);
-                } else {
-
-                    message = transAndStrip(remaining);
-                }
-
-                ChatColor color = ChatColor.WHITE;
-                List<ChatColor> style = new ArrayList<>();
-                String codeMatches = matcher.group().replaceAll("&", "");
-                //    System.out.println(codeMatches);
-                for (int i2 = 0; i2 < codeMatches.length(); i2++) {
-
-
-                    char theCode = codeMatches.charAt(i2);
-
-                    if (ChatColor.getByChar(theCode).isColor()) {
-
-                        color = ChatColor.getByChar(theCode);
-                    } else if (ChatColor.getByChar(theCode).isFormat()) {
-
-                        style.add(ChatColor.getByChar(theCode));
-
-                    }
-                }
-
-                if (latest().hasText())
-                    then();
-                latest().text = message;
-                latest().color = color;
-                if (style.size() > 0)
-                    latest().styles.addAll(style);
-                _dirty = true;
-
-
-            }
+        //if the regions found is 1 this means the region MUST start at the start of the input
+        if (lexer.count() == 1 && lexer.start(0) != 0) {
+            throw new IllegalArgumentException("The text line must start with a color or style code");
+        }
 
+        for (int run = 0; run < lexer.count(); run++) {
 
+            if (hasText())
+                then();
+            int part = _parts.latest();
+            _parts.text[part] = lexer.text(run);
+            _parts.color[part] = (byte) lexer.color(run).ordinal();
+            _parts.styles[part] = (byte) lexer.styles(run);
+            changed();
         }
 
         //Global end return instance of itself
@@ -323,11 +235,6 @@ public class JChat {
 
     }
 
-    private String transAndStrip(String input) {
-
-        return ChatColor.stripColor(ChatColor.translateAlternateColorCodes('&', input));
-    }
-
     /**
      * Used to set the color of this part of the message.
      * Any color from the {@link org.bukkit.ChatColor} can be passed
@@ -341,8 +248,8 @@ public class JChat {
         if (!color.isColor()) {
             throw new IllegalArgumentException(color.name() + " is not a color");
         }
-        latest().color = color;
-        _dirty = true;
+        _parts.color[_parts.latest()] = (byte) color.ordinal();
+        changed();
         return this;
     }
 
@@ -356,13 +263,15 @@ public class JChat {
      */
     public JChat style(ChatColor... styles) {
 
+        int bits = 0;
         for (final ChatColor style : styles) {
             if (!style.isFormat()) {
                 throw new IllegalArgumentException(style.name() + " is not a style");
             }
+            bits |= JChatLexer.styleBit(style);
         }
-        latest().styles.addAll(Arrays.asList(styles));
-        _dirty = true;
+        _parts.styles[_parts.latest()] |= bits;
+        changed();
         return this;
     }
 
@@ -542,7 +451,7 @@ public class JChat {
      */
     public JChat tooltip(final String text) {
 
-        return tooltip(text.split("\\n"));
+        return tooltip(lines(text));
     }
 
     /**
@@ -571,7 +480,7 @@ public class JChat {
     public JChat tooltip(final String... lines) {
         Validate.notNull(lines, "Error tooltip does not contain any lines");
         if (lines.length == 1) {
-            onHover("show_text", ChatColor.translateAlternateColorCodes('&', lines[0]));
+            onHover("show_text", JChatTooltips.text(lines[0]));
         } else {
             itemTooltip(makeItemJSON(lines[0], Arrays.asList(lines).subList(1, lines.length)));
         }
@@ -769,11 +678,11 @@ public class JChat {
      */
     public JChat then(final Object obj) {
 
-        if (!latest().hasText()) {
+        if (!hasText()) {
             throw new IllegalStateException("previous message part has no text");
         }
-        _jChatParts.add(new JChatPart(obj.toString()));
-        _dirty = true;
+        _parts.add(obj.toString());
+        changed();
         return this;
     }
 
@@ -784,11 +693,11 @@ public class JChat {
      */
     public JChat then() {
 
-        if (!latest().hasText()) {
+        if (!hasText()) {
             throw new IllegalStateException("previous message part has no text");
         }
-        _jChatParts.add(new JChatPart());
-        _dirty = true;
+        _parts.add(null);
+        changed();
         return this;
     }
 
@@ -817,27 +726,168 @@ public class JChat {
         if (!_dirty && _jsonString != null) {
             return _jsonString;
         }
-        StringWriter string = new StringWriter();
-        JsonWriter json = new JsonWriter(string);
-        try {
-            if (_jChatParts.size() == 1) {
-                latest().writeJson(json);
-            } else {
-                json.beginObject().name("text").value("").name("extra").beginArray();
-                for (final JChatPart part : _jChatParts) {
-                    part.writeJson(json);
-                }
-                json.endArray().endObject();
-                json.close();
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("invalid message");
-        }
-        _jsonString = string.toString();
+        _jsonString = JChatRenderCache.render(_parts);
+        _jsonBytes = null;
         _dirty = false;
         return _jsonString;
     }
 
+    /**
+     * Converts the message into UTF-8 encoded JSON.
+     * <p>The bytes are cached the same way as {@link #toJSONString()} so a message sent many times or to many players
+     * is only encoded once, they can be written straight into an outgoing network or file buffer.
+     * <p>The returned array is shared with the cache and <strong>must not</strong> be modified.
+     *
+     * @return the UTF-8 encoded JSON representing the complete message
+     */
+    public byte[] toJSONBytes() {
+
+        if (_dirty || _jsonString == null) {
+            toJSONString();
+        }
+        if (_jsonBytes == null) {
+            _jsonBytes = _jsonString.getBytes(StandardCharsets.UTF_8);
+        }
+        return _jsonBytes;
+    }
+
+    /**
+     * Gets the length in bytes of the UTF-8 encoded JSON.
+     * <p>Use this to size or reserve space in a buffer before calling {@link #writeTo(java.nio.ByteBuffer)}.
+     *
+     * @return the number of bytes {@link #toJSONBytes()} returns
+     */
+    public int getJSONLength() {
+
+        return toJSONBytes().length;
+    }
+
+    /**
+     * Writes the message as JSON to an {@link java.lang.Appendable} such as a {@link java.lang.StringBuilder} or
+     * {@link java.io.Writer}, without creating the JSON string first.
+     *
+     * @param out the {@link java.lang.Appendable} to write to
+     * @throws java.io.IOException if the {@link java.lang.Appendable} throws it
+     */
+    public void writeTo(Appendable out) throws IOException {
+
+        if (!_dirty && _jsonString != null) {
+            out.append(_jsonString);
+        } else {
+            _parts.writeJson(JChatWriter.get()).writeTo(out);
+        }
+    }
+
+    /**
+     * Writes the message as UTF-8 encoded JSON to a {@link java.nio.ByteBuffer}, without creating the JSON string first.
+     *
+     * @param out the {@link java.nio.ByteBuffer} to write to
+     * @throws java.nio.BufferOverflowException if there is not enough space remaining in the buffer, nothing is written
+     */
+    public void writeTo(ByteBuffer out) throws BufferOverflowException {
+
+        if (!_dirty && _jsonBytes != null) {
+            out.put(_jsonBytes);
+        } else {
+            _parts.writeJson(JChatWriter.get()).writeTo(out);
+        }
+    }
+
+    /**
+     * Reads a JSON message back into a JChat, the reverse of {@link #toJSONString()}.
+     * <p>The JSON is streamed straight into the message parts, both the single part form and the
+     * <tt>{"text":"","extra":[...]}</tt> form are read, as well as messages written by other tools.
+     * Extra components inherit the color, styles and events of the component holding them the same way the client
+     * displays them. Keys JChat does not use are ignored, so the result can be used to validate, tidy up, cache or
+     * re-render externally written messages.
+     * <p>Like tellraw the JSON is read leniently, so a message can also be a plain string such as <tt>"hello"</tt>.
+     *
+     * @param json the {@link java.io.Reader} holding the JSON message
+     * @return the {@link org.codemine.jchatter.JChat} holding the message
+     * @throws java.io.IOException                if the JSON could not be read, is malformed or holds a translate, score,
+     *                                            selector or keybind component, which JChat can not hold
+     * @throws java.lang.IllegalArgumentException if the JSON is not a valid chat message, such as an unknown color or event action
+     */
+    public static JChat fromJSON(final Reader json) throws IOException, IllegalArgumentException {
+
+        Validate.notNull(json, "The JSON reader can not be null");
+        JChat message = empty();
+        JChatReader.read(json, message._parts);
+        if (message._parts.size == 0) {
+            message._parts.add(null);
+        }
+        return message;
+    }
+
+    /**
+     * Reads a JSON message back into a JChat.
+     *
+     * @param json the JSON message
+     * @return the {@link org.codemine.jchatter.JChat} holding the message
+     * @throws java.lang.IllegalArgumentException if the JSON is malformed or not a valid chat message
+     * @see #fromJSON(java.io.Reader)
+     */
+    public static JChat fromJSON(final String json) throws IllegalArgumentException {
+
+        Validate.notNull(json, "The JSON message can not be null");
+        try {
+            return fromJSON(new StringReader(json));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON message: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates a JChat with no parts, ready for parts to be added directly.
+     *
+     * @return the empty {@link org.codemine.jchatter.JChat}
+     */
+    static JChat empty() {
+
+        JChat message = new JChat();
+        message._parts.clear();
+        return message;
+    }
+
+    /**
+     * Gets the parts of the message, changing them directly does not invalidate the cached JSON.
+     *
+     * @return the {@link org.codemine.jchatter.JChatParts}
+     */
+    JChatParts parts() {
+
+        return _parts;
+    }
+
+    /**
+     * Takes an immutable snapshot of the message.
+     * <p>JChat itself is not thread safe, the returned {@link org.codemine.jchatter.FrozenJChat} has its JSON
+     * rendered once and can be passed to and sent from any thread. Changing this message afterwards does not
+     * change the snapshot.
+     *
+     * @return the {@link org.codemine.jchatter.FrozenJChat} snapshot of the message as it is now
+     */
+    public FrozenJChat freeze() {
+
+        String json = toJSONString();
+        // The snapshot gets its own copy, the array returned by toJSONBytes() is shared with callers
+        return new FrozenJChat(json, _jsonBytes == null ? null : _jsonBytes.clone(), toOldMessageFormat());
+    }
+
+    /**
+     * Compiles the message into a {@link org.codemine.jchatter.JChatTemplate}.
+     * <p>Use this when the same message is sent over and over with only the values changing. Any <strong>%s</strong>
+     * in the text, text tooltips or click events become placeholders that are filled in when the template is rendered,
+     * without having to rebuild or re-parse the message. Use <strong>%%</strong> for a literal <strong>%</strong>.
+     *
+     * @return the compiled {@link org.codemine.jchatter.JChatTemplate}
+     * @throws java.lang.IllegalArgumentException if a placeholder is used in an item tooltip
+     */
+    public JChatTemplate toTemplate() throws IllegalArgumentException {
+
+        return JChatTemplate.compile(this);
+    }
+
     /**
      * <p>Send the current JChat message to the specified player name.
      * The player must be online to send the message
@@ -854,7 +904,7 @@ public class JChat {
         try {
             p = Bukkit.getPlayer(player);
             if (p.isOnline())
-                return Bukkit.dispatchCommand(Bukkit.getConsoleSender(), "tellraw " + p.getName() + " " + toJSONString());
+                return JChatSender.deliver(p, toJSONString());
         } catch (Exception e) {
             throw new RuntimeException(player + "Unable to locate the player with the string name of " + player + " or they are not on line");
         }
@@ -872,16 +922,11 @@ public class JChat {
      * @throws java.lang.RuntimeException if error happens
      */
     public boolean send(UUID player) throws RuntimeException {
-        Player p;
         try {
-            p = Bukkit.getPlayer(player);
-            if (p.isOnline())
-                return Bukkit.dispatchCommand(Bukkit.getConsoleSender(), "tellraw " + p.getName() + " " + toJSONString());
+            return JChatSender.deliver(player, toJSONString());
         } catch (Exception e) {
             throw new RuntimeException(player + "Unable to locate the player with the UUID of " + player.toString() + " or they are not on line");
         }
-
-        return false;
     }
 
     /**
@@ -896,7 +941,7 @@ public class JChat {
     public boolean send(Player player) throws Exception {
         Validate.notNull(player, "To send a JChat message you must pass a valid Player object");
         if (player.isOnline())
-            return Bukkit.dispatchCommand(Bukkit.getConsoleSender(), "tellraw " + player.getName() + " " + toJSONString());
+            return JChatSender.deliver(player, toJSONString());
         else
             try {
                 throw new Exception(player.getName() + "Is not currently online");
@@ -906,25 +951,44 @@ public class JChat {
         return false;
     }
 
-    // public abstract JChat save();
+    /**
+     * Saves the message in the shared {@link org.codemine.jchatter.JChatRegistry} so it only needs to be built once.
+     * <p>The message is frozen and stored under the plugins name and the key, it can then be retrieved using
+     * {@link JChatRegistry#get(org.bukkit.plugin.Plugin, String)} and is kept across server restarts.
+     *
+     * @param plugin the plugin saving the message
+     * @param key    the key to save the message under
+     * @return the {@link org.codemine.jchatter.FrozenJChat} that was saved
+     * @throws java.lang.IllegalStateException if JChatter is not enabled
+     */
+    public FrozenJChat save(final Plugin plugin, final String key) throws IllegalStateException {
+
+        return JChatter.getRegistry().register(plugin, key, this);
+    }
 
     /**
      * Send the current JChat message to all online players
-     * <p>Unfortunately unlike command blocks Tellraw from the console
-     * requires a player name, you can't use say @a to send to all. It is also
-     * not possible to send a broadcast due to that not currently accepting JSON
-     * chat components
+     * <p>With the tellraw sender and no throttle this is a single <tt>tellraw @a</tt> command. It is not possible to
+     * send a broadcast due to that not currently accepting JSON chat components
      *
      *
-     * @return the {@link java.lang.Boolean} true if no errors occured, false if there was a problem
+     * @return the {@link java.lang.Boolean} true if the message was delivered to at least one player, or queued when
+     * called off the main thread, false if not
      */
     public boolean send() {
-        boolean dirty = false;
 
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            dirty = Bukkit.dispatchCommand(Bukkit.getConsoleSender(), "tellraw " + player.getName() + " " + toJSONString());
-        }
-        return dirty;
+        return JChatSender.deliverToAll(toJSONString());
+    }
+
+    /**
+     * Broadcast the current JChat message to all online players.
+     * <p>The message is rendered and converted for sending once and then delivered to every player.
+     *
+     * @return the number of players the message was delivered to, 0 if the message was queued
+     */
+    public int broadcast() {
+
+        return JChatSender.broadcast(toJSONString());
     }
 
     /**
@@ -959,16 +1023,47 @@ public class JChat {
      * Get a copy of the message in the Old style message syntax.
      * <p>This strips out all the JSON formatting and events, and return
      * the message still with full color and style formatted included.
+     * This is the same as rendering the message as {@link org.codemine.jchatter.JChatFormat#LEGACY}.
      *
      * @return the string containing the message in the old Format
      */
     public String toOldMessageFormat() {
 
-        StringBuilder result = new StringBuilder();
-        for (JChatPart part : _jChatParts) {
-            result.append(part.color).append(part.text);
+        return render(JChatFormat.LEGACY);
+    }
+
+    /**
+     * Renders the message in the {@link org.codemine.jchatter.JChatFormat}.
+     * <p>Each format is rendered the first time it is asked for and cached until the message is changed.
+     *
+     * @param format the {@link org.codemine.jchatter.JChatFormat} to render
+     * @return the message in the format
+     */
+    public String render(final JChatFormat format) {
+
+        Validate.notNull(format, "The format can not be null");
+        if (format == JChatFormat.JSON) {
+            return toJSONString();
+        }
+        if (_formats == null) {
+            _formats = new String[JChatFormat.values().length];
         }
-        return result.toString();
+        String rendered = _formats[format.ordinal()];
+        if (rendered == null) {
+            switch (format) {
+                case LEGACY:
+                    rendered = _parts.legacy(new StringBuilder()).toString();
+                    break;
+                case PLAIN:
+                    rendered = JChatFormat.plain(render(JChatFormat.LEGACY));
+                    break;
+                default:
+                    rendered = JChatFormat.ansi(render(JChatFormat.LEGACY));
+                    break;
+            }
+            _formats[format.ordinal()] = rendered;
+        }
+        return rendered;
     }
 
     /**
@@ -978,21 +1073,48 @@ public class JChat {
      */
     public void clear() {
 
-        _jChatParts.clear();
-        _jChatParts.add(new JChatPart());
+        _parts.clear();
+        _parts.add(null);
+        _formats = null;
         _jsonString = null;
+        _jsonBytes = null;
         _dirty = false;
     }
 
-    private JChatPart latest() {
+    /**
+     * Drops the cached JSON of every part so the next render rebuilds the whole message.
+     * <p>The fluent methods already invalidate the parts they change, this is only needed to measure or compare full
+     * renders.
+     *
+     * @return the {@link org.codemine.jchatter.JChat} instance of itself
+     */
+    public JChat invalidate() {
+
+        _parts.changedAll();
+        _formats = null;
+        _dirty = true;
+        return this;
+    }
+
+    /**
+     * Marks the latest part as changed so it and the message are rendered again.
+     */
+    private void changed() {
+
+        _parts.changed(_parts.latest());
+        _formats = null;
+        _dirty = true;
+    }
+
+    private boolean hasText() {
 
-        return _jChatParts.get(_jChatParts.size() - 1);
+        return _parts.text[_parts.latest()] != null;
     }
 
 
     /**
      * Creates not a JSON string as the name would suggest but a string formatted partly in Json but also item NBT data.
-     * This information ws gain directly off the Minecraft Wiki.
+     * The result is cached by {@link org.codemine.jchatter.JChatTooltips} so the same tooltip is only built once.
      *
      * @param title is the Item Display Title
      * @param lore  of Type List<String> an as you normally would using ItemMeta.
@@ -1000,24 +1122,31 @@ public class JChat {
      */
     private String makeItemJSON(final String title, final List<String> lore) {
 
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < lore.size(); i++) {
-            sb.append(i)
-                    .append(':')
-                    .append("\"");
-            if (lore.get(i).isEmpty())
-                sb.append(" ");
-            else
-                sb.append(ChatColor.translateAlternateColorCodes('&', lore.get(i)));
-            sb.append("\",");
+        return JChatTooltips.item(title, lore);
+    }
+
+    /**
+     * Splits text into lines the same way <code>text.split("\\n")</code> does, without compiling a regex each time.
+     */
+    private static String[] lines(final String text) {
+
+        int index = text.indexOf('\n');
+        if (index == -1) {
+            return new String[]{text};
         }
-        return String.format("{id:1s,Count:1b,tag:" +
-                "{display:" +
-                "{Lore:" +
-                "[%s]" +
-                ",Name:\"%s\",}" +
-                ",}" +
-                ",Damage:0s,}", sb.toString(), ChatColor.translateAlternateColorCodes('&', title));
+        List<String> lines = new ArrayList<>();
+        int last = 0;
+        while (index != -1) {
+            lines.add(text.substring(last, index));
+            last = index + 1;
+            index = text.indexOf('\n', last);
+        }
+        lines.add(text.substring(last));
+        int size = lines.size();
+        while (size > 0 && lines.get(size - 1).isEmpty()) {
+            size--;
+        }
+        return lines.subList(0, size).toArray(new String[size]);
     }
 
     @Deprecated
@@ -1032,86 +1161,17 @@ public class JChat {
 
     private void onClick(final String name, final String data) {
 
-        final JChatPart latest = latest();
-        latest.clickActionName = name;
-        latest.clickActionData = data;
-        _dirty = true;
+        final int latest = _parts.latest();
+        _parts.click[latest] = JChatParts.action(name);
+        _parts.clickData[latest] = data;
+        changed();
     }
 
     private void onHover(final String name, final String data) {
 
-        final JChatPart latest = latest();
-        latest.hoverActionName = name;
-        latest.hoverActionData = data;
-        _dirty = true;
-    }
-
-    /**
-     * Creates the individual message part
-     */
-    private final class JChatPart {
-
-        ChatColor color = ChatColor.WHITE;
-        ArrayList<ChatColor> styles = new ArrayList<ChatColor>();
-        String clickActionName = null, clickActionData = null,
-                hoverActionName = null, hoverActionData = null;
-        String text = null;
-
-        JChatPart(final String text) {
-
-            this.text = text;
-        }
-
-        JChatPart() {
-
-        }
-
-        boolean hasText() {
-
-            return text != null;
-        }
-
-        JsonWriter writeJson(JsonWriter json) {
-
-            try {
-                json.beginObject().name("text").value(text);
-                json.name("color").value(color.name().toLowerCase());
-                for (final ChatColor style : styles) {
-                    String styleName;
-                    switch (style) {
-                        case MAGIC:
-                            styleName = "obfuscated";
-                            break;
-                        case UNDERLINE:
-                            styleName = "underlined";
-                            break;
-                        default:
-                            styleName = style.name().toLowerCase();
-                            break;
-                    }
-                    json.name(styleName).value(true);
-                }
-                if (clickActionName != null && clickActionData != null) {
-                    json.name("clickEvent")
-                            .beginObject()
-                            .name("action").value(clickActionName)
-                            .name("value").value(clickActionData)
-                            .endObject();
-                }
-                if (hoverActionName != null && hoverActionData != null) {
-                    json.name("hoverEvent")
-                            .beginObject()
-                            .name("action").value(hoverActionName)
-                            .name("value").value(hoverActionData)
-                            .endObject();
-                }
-                return json.endObject();
-            } catch (Exception e) {
-                e.printStackTrace();
-                return json;
-            }
-        }
-
+        final int latest = _parts.latest();
+        _parts.hover[latest] = JChatParts.action(name);
+        _parts.hoverData[latest] = data;
+        changed();
     }
 }
-
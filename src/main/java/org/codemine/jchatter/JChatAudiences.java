@@ -0,0 +1,220 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indexes of online players used to target {@link org.codemine.jchatter.Audience}s, obtain it using {@link JChatter#getAudiences()}.
+ * <p>Players are indexed by world, by permission and by named group. The indexes are updated as players join, leave and
+ * change world, so sending to an audience only touches the players in it rather than checking every online player.
+ * <ul>
+ * <li>Worlds are indexed automatically.</li>
+ * <li>A permission is indexed from the first time an audience for it is requested. Bukkit has no event for permission
+ * changes, permissions are checked again on join and world change and plugins that change permissions should call
+ * {@link #refresh(org.bukkit.entity.Player)}.</li>
+ * <li>Groups are any name a plugin chooses, players are added and removed by the plugin and removed when they leave.</li>
+ * </ul>
+ * <p>The indexes are updated on the main server thread, audiences can be read and sent to from any thread once they
+ * exist. A permission index is built from the online players, so the first request for a permission must be made on
+ * the main server thread.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatAudiences {
+
+    private final Map<String, Set<Player>> worlds = new ConcurrentHashMap<>();
+    private final Map<String, Set<Player>> permissions = new ConcurrentHashMap<>();
+    private final Map<String, Set<Player>> groups = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the audience of all players in a world.
+     *
+     * @param world the name of the world
+     * @return the {@link org.codemine.jchatter.Audience}
+     */
+    public Audience world(final String world) {
+
+        Validate.notNull(world, "The world name can not be null");
+        return new Audience("world:" + world, index(worlds, world));
+    }
+
+    /**
+     * Gets the audience of all players with a permission.
+     * <p>The first time a permission is used every online player is checked, after that it is kept up to date.
+     * Building the index off the main thread would race players joining and leaving, so that first request must be
+     * made on the main server thread.
+     *
+     * @param permission the permission node
+     * @param online     the players currently online, used to build the index the first time the permission is used
+     * @return the {@link org.codemine.jchatter.Audience}
+     * @throws java.lang.IllegalStateException if the permission is not indexed yet and this is not the main thread
+     */
+    public Audience permission(final String permission, final Collection<? extends Player> online) throws IllegalStateException {
+
+        Validate.notNull(permission, "The permission can not be null");
+        Set<Player> members = permissions.get(permission);
+        if (members == null) {
+            if (!Bukkit.isPrimaryThread()) {
+                throw new IllegalStateException("The permission " + permission + " must first be used from the main server thread");
+            }
+            Set<Player> created = newSet();
+            for (Player player : online) {
+                if (player.hasPermission(permission))
+                    created.add(player);
+            }
+            members = permissions.putIfAbsent(permission, created);
+            if (members == null)
+                members = created;
+        }
+        return new Audience("permission:" + permission, members);
+    }
+
+    /**
+     * Gets the audience of all players in a named group.
+     *
+     * @param group the name of the group
+     * @return the {@link org.codemine.jchatter.Audience}
+     */
+    public Audience group(final String group) {
+
+        Validate.notNull(group, "The group name can not be null");
+        return new Audience("group:" + group, index(groups, group));
+    }
+
+    /**
+     * Adds a player to a named group.
+     *
+     * @param group  the name of the group
+     * @param player the player to add
+     */
+    public void addToGroup(final String group, final Player player) {
+
+        Validate.notNull(group, "The group name can not be null");
+        Validate.notNull(player, "The player can not be null");
+        index(groups, group).add(player);
+    }
+
+    /**
+     * Removes a player from a named group.
+     *
+     * @param group  the name of the group
+     * @param player the player to remove
+     */
+    public void removeFromGroup(final String group, final Player player) {
+
+        Set<Player> members = groups.get(group);
+        if (members != null)
+            members.remove(player);
+    }
+
+    /**
+     * Adds a player who has just joined to the indexes.
+     *
+     * @param player the player
+     */
+    public void join(final Player player) {
+
+        index(worlds, player.getWorld().getName()).add(player);
+        refresh(player);
+    }
+
+    /**
+     * Removes a player who is leaving from every index.
+     *
+     * @param player the player
+     */
+    public void quit(final Player player) {
+
+        removeFrom(worlds, player);
+        removeFrom(permissions, player);
+        removeFrom(groups, player);
+    }
+
+    /**
+     * Moves a player to the index of the world they are now in and checks their permissions again.
+     *
+     * @param player the player
+     * @param from   the name of the world they have left
+     */
+    public void changeWorld(final Player player, final String from) {
+
+        Set<Player> old = worlds.get(from);
+        if (old != null)
+            old.remove(player);
+        index(worlds, player.getWorld().getName()).add(player);
+        refresh(player);
+    }
+
+    /**
+     * Checks the player against every indexed permission again, call this after changing a players permissions.
+     *
+     * @param player the player
+     */
+    public void refresh(final Player player) {
+
+        for (Map.Entry<String, Set<Player>> entry : permissions.entrySet()) {
+            if (player.hasPermission(entry.getKey()))
+                entry.getValue().add(player);
+            else
+                entry.getValue().remove(player);
+        }
+    }
+
+    private static Set<Player> index(final Map<String, Set<Player>> indexes, final String key) {
+
+        Set<Player> members = indexes.get(key);
+        if (members == null) {
+            Set<Player> created = newSet();
+            members = indexes.putIfAbsent(key, created);
+            if (members == null)
+                members = created;
+        }
+        return members;
+    }
+
+    private static void removeFrom(final Map<String, Set<Player>> indexes, final Player player) {
+
+        for (Set<Player> members : indexes.values()) {
+            members.remove(player);
+        }
+    }
+
+    private static Set<Player> newSet() {
+
+        return Collections.newSetFromMap(new ConcurrentHashMap<Player, Boolean>());
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingFormatArgumentException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Translated messages for a plugin, one bundle file per locale.
+ * <p>Bundles are YAML files in the <tt>lang</tt> folder of the plugin's data folder, named after the locale they hold
+ * such as <tt>en_us.yml</tt> or <tt>de_de.yml</tt>. Each key maps to a message using the '&amp;' color and style codes
+ * and <strong>%s</strong> placeholders, <strong>%%</strong> for a literal <strong>%</strong>. A list of strings is joined
+ * into a multi line message.
+ * <pre>
+ *     welcome: "&amp;a&amp;oHi %s welcome to &amp;6&amp;o%s"
+ *     shop:
+ *       closed: "&amp;cThe shop is closed"
+ * </pre>
+ * <p>The files are read by {@link #load()} but a message is only compiled into a {@link org.codemine.jchatter.JChatTemplate}
+ * the first time it is used, after that the compiled template is reused for every send in that locale.
+ * <p>Messages are picked using the locale the player's client reports. If there is no bundle for it the bundle for
+ * the same language is tried, so <tt>en_gb</tt> can use <tt>en.yml</tt>, and then the default locale. Keys missing from
+ * a translation also fall back to the default locale.
+ * <pre>
+ * {@code
+ *     JChatBundle messages = new JChatBundle(plugin, "en_us");
+ *     messages.load();
+ *     messages.send(player, "welcome", player.getName(), "Factions");
+ *     }
+ * </pre>
+ * <p>Bundles can be used from any thread.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatBundle {
+
+    /**
+     * The name of the folder, inside the plugin's data folder, the bundles are loaded from.
+     */
+    public static final String FOLDER = "lang";
+
+    private final File folder;
+    private final String defaultLocale;
+    private volatile Map<String, Messages> locales = Collections.emptyMap();
+
+    /**
+     * Instantiates a new JChatBundle for the plugin, using <tt>en_us</tt> as the default locale.
+     *
+     * @param plugin the plugin whose data folder holds the bundles
+     */
+    public JChatBundle(final Plugin plugin) {
+
+        this(plugin, "en_us");
+    }
+
+    /**
+     * Instantiates a new JChatBundle for the plugin.
+     *
+     * @param plugin        the plugin whose data folder holds the bundles
+     * @param defaultLocale the locale used when there is no bundle or message for a player's locale
+     */
+    public JChatBundle(final Plugin plugin, final String defaultLocale) {
+
+        Validate.notNull(plugin, "The plugin can not be null");
+        Validate.notNull(defaultLocale, "The default locale can not be null");
+        this.folder = new File(plugin.getDataFolder(), FOLDER);
+        this.defaultLocale = normalize(defaultLocale);
+    }
+
+    /**
+     * Loads or reloads every bundle in the <tt>lang</tt> folder.
+     * <p>Any messages already compiled are discarded and compiled again from the new files when next used.
+     *
+     * @return the number of locales loaded
+     */
+    public int load() {
+
+        Map<String, Messages> loaded = new HashMap<>();
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (!file.isFile() || !name.endsWith(".yml")) {
+                    continue;
+                }
+                YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+                Map<String, String> messages = new HashMap<>();
+                for (String key : config.getKeys(true)) {
+                    if (config.isString(key)) {
+                        messages.put(key, config.getString(key));
+                    } else if (config.isList(key)) {
+                        messages.put(key, String.join("\n", config.getStringList(key)));
+                    }
+                }
+                loaded.put(normalize(name.substring(0, name.length() - 4)), new Messages(messages));
+            }
+        }
+        locales = loaded;
+        return loaded.size();
+    }
+
+    /**
+     * Gets the locales that have a bundle loaded.
+     *
+     * @return an unmodifiable {@link java.util.Set} of the locales
+     */
+    public Set<String> getLocales() {
+
+        return Collections.unmodifiableSet(locales.keySet());
+    }
+
+    /**
+     * Gets the default locale.
+     *
+     * @return the default locale
+     */
+    public String getDefaultLocale() {
+
+        return defaultLocale;
+    }
+
+    /**
+     * Gets the compiled message for a locale, compiling it if this is the first time it is used.
+     *
+     * @param locale the locale, such as <tt>en_US</tt>
+     * @param key    the message key
+     * @return the {@link org.codemine.jchatter.JChatTemplate} for the message
+     * @throws java.lang.IllegalArgumentException if neither the locale nor the default locale has the message, or
+     *                                            the message is not valid
+     */
+    public JChatTemplate get(final String locale, final String key) throws IllegalArgumentException {
+
+        Validate.notNull(key, "The key can not be null");
+        Map<String, Messages> current = locales;
+        String normalized = locale == null ? defaultLocale : normalize(locale);
+        JChatTemplate template = find(current.get(normalized), key);
+        if (template == null) {
+            int split = normalized.indexOf('_');
+            if (split > 0) {
+                template = find(current.get(normalized.substring(0, split)), key);
+            }
+        }
+        if (template == null) {
+            template = find(current.get(defaultLocale), key);
+        }
+        if (template == null) {
+            throw new IllegalArgumentException("There is no message " + key + " for the locale " + normalized + " or " + defaultLocale);
+        }
+        return template;
+    }
+
+    /**
+     * Gets the compiled message for the player's locale.
+     *
+     * @param player the player
+     * @param key    the message key
+     * @return the {@link org.codemine.jchatter.JChatTemplate} for the message
+     * @throws java.lang.IllegalArgumentException if there is no message for the key
+     */
+    public JChatTemplate get(final Player player, final String key) throws IllegalArgumentException {
+
+        Validate.notNull(player, "The player can not be null");
+        return get(player.spigot().getLocale(), key);
+    }
+
+    /**
+     * Renders the message in the player's locale into a JSON message ready to send.
+     *
+     * @param player the player whose locale is used
+     * @param key    the message key
+     * @param values the values used to replace the placeholders in order
+     * @return the JSON string representing the complete message
+     * @throws java.lang.IllegalArgumentException       if there is no message for the key
+     * @throws java.util.MissingFormatArgumentException if the number of placeholders and values don't match
+     */
+    public String render(final Player player, final String key, final String... values) throws IllegalArgumentException, MissingFormatArgumentException {
+
+        return get(player, key).render(values);
+    }
+
+    /**
+     * Send the message to the player in their locale.
+     *
+     * @param player the player the message is sent to
+     * @param key    the message key
+     * @param values the values used to replace the placeholders in order
+     * @return true if the message was sent or queued
+     * @throws java.lang.IllegalArgumentException       if there is no message for the key
+     * @throws java.util.MissingFormatArgumentException if the number of placeholders and values don't match
+     */
+    public boolean send(final Player player, final String key, final String... values) throws IllegalArgumentException, MissingFormatArgumentException {
+
+        return JChatSender.deliver(player, render(player, key, values));
+    }
+
+    private static JChatTemplate find(final Messages messages, final String key) {
+
+        return messages == null ? null : messages.get(key);
+    }
+
+    // Clients have sent both en_US and en_us at different times
+    private static String normalize(final String locale) {
+
+        return locale.replace('-', '_').toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Compiles the message text the same way {@link org.codemine.jchatter.JChat#coloredText(String)} does, text
+     * before the first code is white.
+     */
+    private static JChatTemplate compile(final String key, final String text) {
+
+        JChat message;
+        try {
+            // Consecutive codes are merged with the last color winning, so text already starting with a code is unchanged
+            message = new JChat().coloredText("&f" + text);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("The message " + key + " is not valid: " + e.getMessage(), e);
+        }
+        JChatParts parts = message.parts();
+        boolean hasText = false;
+        for (int part = 0; part < parts.size && !hasText; part++) {
+            hasText = parts.text[part] != null && !parts.text[part].isEmpty();
+        }
+        if (!hasText) {
+            throw new IllegalArgumentException("The message " + key + " has no text");
+        }
+        try {
+            return message.toTemplate();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("The message " + key + " is not valid: " + e.getMessage(), e);
+        }
+    }
+
+    private static final class Messages {
+
+        private final Map<String, String> messages;
+        private final ConcurrentHashMap<String, JChatTemplate> compiled = new ConcurrentHashMap<>();
+
+        Messages(final Map<String, String> messages) {
+
+            this.messages = messages;
+        }
+
+        JChatTemplate get(final String key) {
+
+            JChatTemplate template = compiled.get(key);
+            if (template == null) {
+                String text = messages.get(key);
+                if (text == null) {
+                    return null;
+                }
+                template = compile(key, text);
+                JChatTemplate raced = compiled.putIfAbsent(key, template);
+                if (raced != null) {
+                    template = raced;
+                }
+            }
+            return template;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.codemine.jchatter.Interfaces.IBroadcastTransport;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bus carrying network wide broadcasts to every server, obtain it using {@link JChatter#getBus()}.
+ * <p>A message is built once, on the server that publishes it, and its JSON is carried to every subscribed server by an
+ * {@link org.codemine.jchatter.Interfaces.IBroadcastTransport}, where it is sent to all online players. Publishing can
+ * be done from any thread and never blocks, messages are collected and published together as one batch every flush
+ * interval. JChatter starts the bus with a {@link org.codemine.jchatter.JChatLoopbackTransport} so on a single
+ * server messages are simply delivered locally.
+ * <pre>
+ * {@code
+ *     JChatter.getBus().publish(new JChat().coloredText("&6&lThe event starts in 5 minutes"));
+ *     }
+ * </pre>
+ * <p>Every message carries the time it was published, so the bus measures the fan out latency from publishing to the
+ * message being delivered to the players of each server. As the time is taken from the system clock of each server,
+ * the latency measured between servers is only as accurate as their clocks are in sync.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatBus implements Runnable {
+
+    private static final int VERSION = 1;
+    // version and message count
+    private static final int HEADER_SIZE = 5;
+    // published time and JSON length
+    private static final int MESSAGE_HEADER_SIZE = 12;
+
+    private final ConcurrentLinkedQueue<Message> outgoing = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Message> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong published = new AtomicLong();
+    private final Consumer<byte[]> receiver = this::receive;
+    private final Logger logger;
+    private final int flushTicks;
+    private volatile IBroadcastTransport transport;
+    private int ticks;
+
+    private volatile long batches;
+    private volatile long received;
+    private volatile long delivered;
+    private volatile long totalLatency;
+    private volatile long maxLatency;
+
+    /**
+     * Instantiates a new JChatBus and opens the transport
+     *
+     * @param transport  the transport used to carry messages between servers
+     * @param flushTicks the number of ticks between publishing each batch of messages
+     * @param logger     the logger used to report batches that fail to publish or can not be read
+     */
+    public JChatBus(final IBroadcastTransport transport, final int flushTicks, final Logger logger) {
+
+        Validate.notNull(transport, "The transport can not be null");
+        Validate.isTrue(flushTicks > 0, "The flush interval must be at least 1 tick");
+        Validate.notNull(logger, "The logger can not be null");
+        this.flushTicks = flushTicks;
+        this.logger = logger;
+        this.transport = transport;
+        transport.open(receiver);
+    }
+
+    /**
+     * Publish a message to every server, it is sent to all players online on each server.
+     *
+     * @param message the message to publish, its JSON is taken straight away so it can be changed afterwards
+     */
+    public void publish(final JChat message) {
+
+        Validate.notNull(message, "The message can not be null");
+        add(message.toJSONBytes());
+    }
+
+    /**
+     * Publish a message to every server, it is sent to all players online on each server.
+     *
+     * @param message the message to publish
+     */
+    public void publish(final FrozenJChat message) {
+
+        Validate.notNull(message, "The message can not be null");
+        add(message.toJSONBytes());
+    }
+
+    /**
+     * Publish a message to every server, it is sent to all players online on each server.
+     *
+     * @param json the pre made message in JSON format
+     */
+    public void publish(final String json) {
+
+        Validate.notNull(json, "You must pass a JSON formatted message to publish");
+        add(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void add(final byte[] json) {
+
+        outgoing.offer(new Message(json, System.currentTimeMillis()));
+        pending.incrementAndGet();
+        published.incrementAndGet();
+    }
+
+    /**
+     * Gets the transport carrying messages between servers
+     *
+     * @return the {@link org.codemine.jchatter.Interfaces.IBroadcastTransport}
+     */
+    public IBroadcastTransport getTransport() {
+
+        return transport;
+    }
+
+    /**
+     * Sets the transport carrying messages between servers, the current transport is closed.
+     * Messages waiting for the next flush are published using the new transport.
+     * <p>This must only be called from the main server thread.
+     *
+     * @param transport the {@link org.codemine.jchatter.Interfaces.IBroadcastTransport} to use
+     */
+    public void setTransport(final IBroadcastTransport transport) {
+
+        Validate.notNull(transport, "The transport can not be null");
+        if (transport == this.transport)
+            return;
+        this.transport.close();
+        this.transport = transport;
+        transport.open(receiver);
+        logger.info("Broadcast bus using the " + transport.getName() + " transport");
+    }
+
+    /**
+     * Gets the number of ticks between publishing each batch of messages
+     *
+     * @return the flush interval in ticks
+     */
+    public int getFlushTicks() {
+
+        return flushTicks;
+    }
+
+    /**
+     * Gets the number of messages waiting to be published
+     *
+     * @return the number of messages waiting for the next flush
+     */
+    public int getPending() {
+
+        return pending.get();
+    }
+
+    /**
+     * Gets the number of messages published by this server
+     *
+     * @return the number of published messages
+     */
+    public long getPublished() {
+
+        return published.get();
+    }
+
+    /**
+     * Gets the number of batches published by this server
+     *
+     * @return the number of published batches
+     */
+    public long getBatches() {
+
+        return batches;
+    }
+
+    /**
+     * Gets the number of messages received from all servers, including this one
+     *
+     * @return the number of received messages
+     */
+    public long getReceived() {
+
+        return received;
+    }
+
+    /**
+     * Gets the number of times a received message was delivered to a player on this server
+     *
+     * @return the number of deliveries
+     */
+    public long getDelivered() {
+
+        return delivered;
+    }
+
+    /**
+     * Gets the average time from a message being published to it being delivered on this server
+     *
+     * @return the average latency in milliseconds, 0 if no messages have been received
+     */
+    public double getAverageLatency() {
+
+        long count = received;
+        return count == 0 ? 0 : (double) totalLatency / count;
+    }
+
+    /**
+     * Gets the longest time from a message being published to it being delivered on this server
+     *
+     * @return the max latency in milliseconds
+     */
+    public long getMaxLatency() {
+
+        return maxLatency;
+    }
+
+    /**
+     * Resets the received message counts and latency measurements.
+     * <p>This must only be called from the main server thread.
+     */
+    public void resetStats() {
+
+        received = 0;
+        delivered = 0;
+        totalLatency = 0;
+        maxLatency = 0;
+    }
+
+    /**
+     * Publishes the waiting messages every flush interval and delivers any messages received.
+     * <p>This must only be run on the main server thread, JChatter runs it every tick.
+     */
+    @Override
+    public void run() {
+
+        if (++ticks >= flushTicks) {
+            ticks = 0;
+            flush();
+        }
+        deliver();
+    }
+
+    /**
+     * Publishes and delivers everything waiting then closes the transport, used when JChatter is disabled.
+     */
+    void shutdown() {
+
+        flush();
+        deliver();
+        transport.close();
+    }
+
+    private void flush() {
+
+        if (outgoing.isEmpty())
+            return;
+        final IBroadcastTransport current = transport;
+        final int maxBatchSize = current.getMaxBatchSize();
+        List<Message> batch = new ArrayList<>();
+        int size = HEADER_SIZE;
+        Message message;
+        while ((message = outgoing.poll()) != null) {
+            pending.decrementAndGet();
+            int length = MESSAGE_HEADER_SIZE + message.json.length;
+            if (!batch.isEmpty() && size + length > maxBatchSize) {
+                publish(current, batch, size);
+                batch.clear();
+                size = HEADER_SIZE;
+            }
+            batch.add(message);
+            size += length;
+        }
+        publish(current, batch, size);
+    }
+
+    private void publish(final IBroadcastTransport current, final List<Message> batch, final int size) {
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.put((byte) VERSION).putInt(batch.size());
+        for (Message message : batch) {
+            out.putLong(message.published).putInt(message.json.length).put(message.json);
+        }
+        try {
+            current.publish(out.array());
+            batches++;
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Unable to publish " + batch.size() + " messages using the " + current.getName() + " transport", e);
+        }
+    }
+
+    /**
+     * Reads a batch received by the transport, called from any thread.
+     */
+    private void receive(final byte[] batch) {
+
+        List<Message> messages = new ArrayList<>();
+        try {
+            ByteBuffer in = ByteBuffer.wrap(batch);
+            int version = in.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported batch version " + version);
+            }
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                long time = in.getLong();
+                int length = in.getInt();
+                if (length < 0 || length > in.remaining())
+                    throw new BufferUnderflowException();
+                byte[] json = new byte[length];
+                in.get(json);
+                messages.add(new Message(json, time));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            logger.warning("Dropped a broadcast batch that could not be read: " + (e.getMessage() == null ? "truncated batch" : e.getMessage()));
+            return;
+        }
+        incoming.addAll(messages);
+    }
+
+    private void deliver() {
+
+        Message message;
+        while ((message = incoming.poll()) != null) {
+            try {
+                delivered += JChatSender.broadcastAllNow(new String(message.json, StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Unable to deliver a broadcast message", e);
+            }
+            long latency = Math.max(0, System.currentTimeMillis() - message.published);
+            received++;
+            totalLatency += latency;
+            if (latency > maxLatency)
+                maxLatency = latency;
+        }
+    }
+
+    private static final class Message {
+
+        private final byte[] json;
+        private final long published;
+
+        Message(final byte[] json, final long published) {
+
+            this.json = json;
+            this.published = published;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.ChatColor;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of {@link org.codemine.jchatter.JChat} messages.
+ * <p>Where the JSON repeats property names and color names for every part, the binary form stores each part as
+ * a flags byte, a color byte and a style bitmask byte, with the click and hover actions as a byte each. Text and
+ * event data are written once into a string table at the start and referenced by index, so text or a command
+ * used by several parts is only stored once. Lengths and indexes are written as varints.
+ * <pre>
+ *     magic 'J' 'C', version
+ *     varint string count, each string as a varint UTF-8 length then the bytes
+ *     varint part count, each part as
+ *         flags, color, styles
+ *         varint text index                 if it has text
+ *         click action, varint data index   if it has a click event
+ *         hover action, varint data index   if it has a hover event
+ * </pre>
+ * <p>Use it to store message catalogs or pass prebuilt messages between servers, decoding a message only has to copy
+ * the strings out of the buffer instead of parsing JSON.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public final class JChatCodec {
+
+    private static final byte MAGIC_1 = 'J';
+    private static final byte MAGIC_2 = 'C';
+
+    /**
+     * The version of the encoding written, messages written by a newer version can not be read.
+     */
+    public static final int VERSION = 1;
+
+    private static final int HAS_TEXT = 1;
+    private static final int HAS_CLICK = 1 << 1;
+    private static final int HAS_HOVER = 1 << 2;
+
+    private static final ChatColor[] COLORS = ChatColor.values();
+
+    private JChatCodec() {
+
+    }
+
+    /**
+     * Encodes the message into a new byte array.
+     *
+     * @param message the message to encode
+     * @return the encoded message
+     */
+    public static byte[] encode(final JChat message) {
+
+        Encoder encoder = new Encoder(message);
+        byte[] bytes = new byte[encoder.length];
+        encoder.write(ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Gets the number of bytes the message takes up when encoded.
+     *
+     * @param message the message
+     * @return the encoded length in bytes
+     */
+    public static int getEncodedLength(final JChat message) {
+
+        return new Encoder(message).length;
+    }
+
+    /**
+     * Writes the encoded message to a {@link java.nio.ByteBuffer}.
+     *
+     * @param message the message to encode
+     * @param out     the {@link java.nio.ByteBuffer} to write to
+     * @throws java.nio.BufferOverflowException if there is not enough space remaining in the buffer, nothing is written
+     */
+    public static void writeTo(final JChat message, final ByteBuffer out) throws BufferOverflowException {
+
+        Validate.notNull(out, "The buffer can not be null");
+        Encoder encoder = new Encoder(message);
+        if (out.remaining() < encoder.length)
+            throw new BufferOverflowException();
+        encoder.write(out);
+    }
+
+    /**
+     * Reads an encoded message from a {@link java.nio.ByteBuffer}, leaving the buffer positioned after the message.
+     *
+     * @param in the {@link java.nio.ByteBuffer} to read from
+     * @return the decoded {@link org.codemine.jchatter.JChat}
+     * @throws java.nio.BufferUnderflowException  if the buffer ends before the message does
+     * @throws java.lang.IllegalArgumentException if the data is not an encoded message or was written by a newer version
+     */
+    public static JChat readFrom(final ByteBuffer in) throws BufferUnderflowException, IllegalArgumentException {
+
+        Validate.notNull(in, "The buffer can not be null");
+        if (in.get() != MAGIC_1 || in.get() != MAGIC_2) {
+            throw new IllegalArgumentException("The data is not an encoded JChat message");
+        }
+        int version = in.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported JChat encoding version " + version);
+        }
+
+        // Every string takes at least 1 byte and every part at least 3, so a corrupt count is caught before allocating
+        int stringCount = readVarInt(in);
+        if (stringCount > in.remaining()) {
+            throw new IllegalArgumentException("Invalid string count " + stringCount);
+        }
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(in);
+        }
+
+        int count = readVarInt(in);
+        if (count > in.remaining() / 3) {
+            throw new IllegalArgumentException("Invalid part count " + count);
+        }
+        JChat message = JChat.empty();
+        JChatParts parts = message.parts();
+        for (int i = 0; i < count; i++) {
+            int flags = in.get();
+            int color = in.get();
+            int styles = in.get();
+            if (color < 0 || color >= COLORS.length || !COLORS[color].isColor() || (styles & ~0x1F) != 0) {
+                throw new IllegalArgumentException("Invalid color or style in part " + i);
+            }
+            int part = parts.add((flags & HAS_TEXT) != 0 ? string(strings, in) : null);
+            parts.color[part] = (byte) color;
+            parts.styles[part] = (byte) styles;
+            if ((flags & HAS_CLICK) != 0) {
+                parts.click[part] = action(in.get());
+                parts.clickData[part] = string(strings, in);
+            }
+            if ((flags & HAS_HOVER) != 0) {
+                parts.hover[part] = action(in.get());
+                parts.hoverData[part] = string(strings, in);
+            }
+        }
+        if (parts.size == 0) {
+            parts.add(null);
+        }
+        return message;
+    }
+
+    /**
+     * Reads an encoded message from a byte array.
+     *
+     * @param bytes the encoded message
+     * @return the decoded {@link org.codemine.jchatter.JChat}
+     * @throws java.lang.IllegalArgumentException if the data is not a complete encoded message
+     */
+    public static JChat decode(final byte[] bytes) throws IllegalArgumentException {
+
+        Validate.notNull(bytes, "The encoded message can not be null");
+        try {
+            return readFrom(ByteBuffer.wrap(bytes));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The encoded message is incomplete");
+        }
+    }
+
+    private static byte action(final byte action) {
+
+        if (JChatParts.actionName(action) == null)
+            throw new IllegalArgumentException("Invalid event action " + action);
+        return action;
+    }
+
+    private static String string(final String[] strings, final ByteBuffer in) {
+
+        int index = readVarInt(in);
+        if (index >= strings.length)
+            throw new IllegalArgumentException("Invalid string index " + index);
+        return strings[index];
+    }
+
+    private static String readString(final ByteBuffer in) {
+
+        int length = readVarInt(in);
+        if (length > in.remaining())
+            throw new BufferUnderflowException();
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static int readVarInt(final ByteBuffer in) {
+
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0)
+                    break;
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid varint");
+    }
+
+    private static int varIntLength(int value) {
+
+        int length = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    private static void writeVarInt(final ByteBuffer out, int value) {
+
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Works out the string table and the encoded length, so the buffer can be checked before anything is written.
+     */
+    private static final class Encoder {
+
+        private final JChatParts parts;
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+        private final int[] text;
+        private final int[] clickData;
+        private final int[] hoverData;
+        private final int length;
+
+        Encoder(final JChat message) {
+
+            Validate.notNull(message, "The message can not be null");
+            parts = message.parts();
+            text = new int[parts.size];
+            clickData = new int[parts.size];
+            hoverData = new int[parts.size];
+            int bytes = 3 + varIntLength(parts.size);
+            for (int part = 0; part < parts.size; part++) {
+                bytes += 3;
+                text[part] = index(parts.text[part]);
+                if (text[part] != -1)
+                    bytes += varIntLength(text[part]);
+                clickData[part] = parts.click[part] != 0 ? index(parts.clickData[part]) : -1;
+                if (clickData[part] != -1)
+                    bytes += 1 + varIntLength(clickData[part]);
+                hoverData[part] = parts.hover[part] != 0 ? index(parts.hoverData[part]) : -1;
+                if (hoverData[part] != -1)
+                    bytes += 1 + varIntLength(hoverData[part]);
+            }
+            bytes += varIntLength(strings.size());
+            for (byte[] string : strings) {
+                bytes += varIntLength(string.length) + string.length;
+            }
+            length = bytes;
+        }
+
+        private int index(final String value) {
+
+            if (value == null)
+                return -1;
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = strings.size();
+                indexes.put(value, index);
+                strings.add(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return index;
+        }
+
+        void write(final ByteBuffer out) {
+
+            out.put(MAGIC_1).put(MAGIC_2).put((byte) VERSION);
+            writeVarInt(out, strings.size());
+            for (byte[] string : strings) {
+                writeVarInt(out, string.length);
+                out.put(string);
+            }
+            writeVarInt(out, parts.size);
+            for (int part = 0; part < parts.size; part++) {
+                int flags = 0;
+                if (text[part] != -1)
+                    flags |= HAS_TEXT;
+                if (clickData[part] != -1)
+                    flags |= HAS_CLICK;
+                if (hoverData[part] != -1)
+                    flags |= HAS_HOVER;
+                out.put((byte) flags).put(parts.color[part]).put(parts.styles[part]);
+                if (text[part] != -1)
+                    writeVarInt(out, text[part]);
+                if (clickData[part] != -1) {
+                    out.put(parts.click[part]);
+                    writeVarInt(out, clickData[part]);
+                }
+                if (hoverData[part] != -1) {
+                    out.put(parts.hover[part]);
+                    writeVarInt(out, hoverData[part]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.bukkit.ChatColor;
+
+/**
+ * The formats a message can be rendered in using {@link JChat#render(JChatFormat)} or
+ * {@link FrozenJChat#render(JChatFormat)}.
+ * <p>Each format is rendered from the same message the first time it is asked for and cached until the message
+ * changes, so the chat, log and console copies of a message are all built once however many times they are used.
+ * Only {@link #JSON} keeps click and hover events, the other formats are text only.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public enum JChatFormat {
+
+    /**
+     * The JSON used by the tellraw command and the Spigot chat API.
+     */
+    JSON,
+    /**
+     * Text using the '&sect;' color and style codes, for plugins and clients that don't support JSON messages.
+     */
+    LEGACY,
+    /**
+     * Text with all color and style codes removed, for log files.
+     */
+    PLAIN,
+    /**
+     * Text using ANSI escape codes for colors and styles, for terminals and console output.
+     */
+    ANSI;
+
+    private static final String ANSI_RESET = "\u001B[0m";
+
+    // ANSI escape codes indexed by the color or style code character
+    private static final String[] ANSI_CODES = new String[128];
+
+    static {
+        ansi(ChatColor.BLACK, "\u001B[0;30;22m");
+        ansi(ChatColor.DARK_BLUE, "\u001B[0;34;22m");
+        ansi(ChatColor.DARK_GREEN, "\u001B[0;32;22m");
+        ansi(ChatColor.DARK_AQUA, "\u001B[0;36;22m");
+        ansi(ChatColor.DARK_RED, "\u001B[0;31;22m");
+        ansi(ChatColor.DARK_PURPLE, "\u001B[0;35;22m");
+        ansi(ChatColor.GOLD, "\u001B[0;33;22m");
+        ansi(ChatColor.GRAY, "\u001B[0;37;22m");
+        ansi(ChatColor.DARK_GRAY, "\u001B[0;30;1m");
+        ansi(ChatColor.BLUE, "\u001B[0;34;1m");
+        ansi(ChatColor.GREEN, "\u001B[0;32;1m");
+        ansi(ChatColor.AQUA, "\u001B[0;36;1m");
+        ansi(ChatColor.RED, "\u001B[0;31;1m");
+        ansi(ChatColor.LIGHT_PURPLE, "\u001B[0;35;1m");
+        ansi(ChatColor.YELLOW, "\u001B[0;33;1m");
+        ansi(ChatColor.WHITE, "\u001B[0;37;1m");
+        ansi(ChatColor.MAGIC, "\u001B[5m");
+        ansi(ChatColor.BOLD, "\u001B[1m");
+        ansi(ChatColor.STRIKETHROUGH, "\u001B[9m");
+        ansi(ChatColor.UNDERLINE, "\u001B[4m");
+        ansi(ChatColor.ITALIC, "\u001B[3m");
+        ansi(ChatColor.RESET, ANSI_RESET);
+    }
+
+    private static void ansi(final ChatColor color, final String code) {
+
+        ANSI_CODES[color.getChar()] = code;
+        ANSI_CODES[Character.toUpperCase(color.getChar())] = code;
+    }
+
+    /**
+     * Converts {@link #LEGACY} text to {@link #PLAIN} text.
+     *
+     * @param legacy the text using '&sect;' codes
+     * @return the text without any codes
+     */
+    static String plain(final String legacy) {
+
+        return ChatColor.stripColor(legacy);
+    }
+
+    /**
+     * Converts {@link #LEGACY} text to {@link #ANSI} text, the text always ends with a reset so the colors do not
+     * carry over to whatever is written next.
+     *
+     * @param legacy the text using '&sect;' codes
+     * @return the text using ANSI escape codes
+     */
+    static String ansi(final String legacy) {
+
+        final int length = legacy.length();
+        StringBuilder out = new StringBuilder(length + 64);
+        int last = 0;
+        for (int i = 0; i < length - 1; i++) {
+            if (legacy.charAt(i) != ChatColor.COLOR_CHAR)
+                continue;
+            char code = legacy.charAt(i + 1);
+            String escape = code < 128 ? ANSI_CODES[code] : null;
+            if (escape == null)
+                continue;
+            out.append(legacy, last, i).append(escape);
+            last = i + 2;
+            i++;
+        }
+        return out.append(legacy, last, length).append(ANSI_RESET).toString();
+    }
+}
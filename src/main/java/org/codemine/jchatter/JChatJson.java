@@ -0,0 +1,189 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.bukkit.ChatColor;
+
+/**
+ * JSON string escaping used when JChat splices text into already built JSON.
+ * <p>Escapes exactly the same characters as Gson's {@link com.google.gson.stream.JsonWriter} so spliced output
+ * is identical to a full render. Runs of characters that need no escaping are copied in bulk.
+ * <p>Also holds the fixed pieces of JSON a message part is made of. Every color and style is mapped to its
+ * property once, indexed by {@link org.bukkit.ChatColor#ordinal()}, so rendering a part writes whole fragments
+ * instead of building property names. This is for internal use only.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+final class JChatJson {
+
+    static final String TEXT = "{\"text\":";
+    static final String EXTRA = "{\"text\":\"\",\"extra\":[";
+    static final String CLICK_EVENT = ",\"clickEvent\":{\"action\":";
+    static final String HOVER_EVENT = ",\"hoverEvent\":{\"action\":";
+    static final String VALUE = ",\"value\":";
+    // The start of the item data of an item tooltip, values spliced in after this are inside the item's NBT
+    static final String ITEM_VALUE = "\"show_item\"" + VALUE + '"';
+
+    private static final String[] REPLACEMENT_CHARS = new String[128];
+    private static final String[] COLORS;
+    private static final String[] STYLES;
+
+    static {
+        for (int i = 0; i <= 0x1f; i++) {
+            REPLACEMENT_CHARS[i] = String.format("\\u%04x", i);
+        }
+        REPLACEMENT_CHARS['"'] = "\\\"";
+        REPLACEMENT_CHARS['\\'] = "\\\\";
+        REPLACEMENT_CHARS['\t'] = "\\t";
+        REPLACEMENT_CHARS['\b'] = "\\b";
+        REPLACEMENT_CHARS['\n'] = "\\n";
+        REPLACEMENT_CHARS['\r'] = "\\r";
+        REPLACEMENT_CHARS['\f'] = "\\f";
+
+        ChatColor[] values = ChatColor.values();
+        COLORS = new String[values.length];
+        STYLES = new String[values.length];
+        for (ChatColor value : values) {
+            String name = value.name().toLowerCase();
+            COLORS[value.ordinal()] = ",\"color\":\"" + name + "\"";
+            switch (value) {
+                case MAGIC:
+                    name = "obfuscated";
+                    break;
+                case UNDERLINE:
+                    name = "underlined";
+                    break;
+            }
+            STYLES[value.ordinal()] = ",\"" + name + "\":true";
+        }
+    }
+
+    private JChatJson() {
+
+    }
+
+    /**
+     * Gets the escape sequence for a character.
+     *
+     * @param c the character
+     * @return the escape sequence or null if the character is written as is
+     */
+    static String replacement(char c) {
+
+        if (c < 128) {
+            return REPLACEMENT_CHARS[c];
+        } else if (c == '\u2028') {
+            return "\\u2028";
+        } else if (c == '\u2029') {
+            return "\\u2029";
+        }
+        return null;
+    }
+
+    /**
+     * Finds the closing quote of a JSON string value.
+     *
+     * @param json  the JSON
+     * @param index the index of the first character after the opening quote
+     * @return the index of the closing quote, or the length of the JSON if the string is not closed
+     */
+    static int stringEnd(final String json, int index) {
+
+        while (index < json.length()) {
+            char c = json.charAt(index);
+            if (c == '"')
+                return index;
+            index += c == '\\' ? 2 : 1;
+        }
+        return json.length();
+    }
+
+    /**
+     * Checks if an index of a JSON message is inside the item data of an item tooltip.
+     * <p>Values spliced in there are only JSON escaped, so they could break the item's NBT.
+     *
+     * @param json  the JSON message, as JChat writes it
+     * @param index the index to check
+     * @return true if the index is inside item tooltip data
+     */
+    static boolean inItemValue(final String json, final int index) {
+
+        int start = json.lastIndexOf(ITEM_VALUE, index);
+        return start != -1 && stringEnd(json, start + ITEM_VALUE.length()) > index;
+    }
+
+    /**
+     * Gets the color property of a part, including the leading comma.
+     *
+     * @param color the color
+     * @return the JSON fragment, for example <code>,"color":"red"</code>
+     */
+    static String color(final ChatColor color) {
+
+        return COLORS[color.ordinal()];
+    }
+
+    /**
+     * Gets the property that turns a style on, including the leading comma.
+     *
+     * @param style the style
+     * @return the JSON fragment, for example <code>,"bold":true</code>
+     */
+    static String style(final ChatColor style) {
+
+        return STYLES[style.ordinal()];
+    }
+
+    /**
+     * Appends the escaped contents of a JSON string value, without the surrounding quotes.
+     *
+     * @param value the value to escape
+     * @param out   the {@link java.lang.StringBuilder} to append to
+     * @return the {@link java.lang.StringBuilder} passed in
+     */
+    static StringBuilder escape(final CharSequence value, final StringBuilder out) {
+
+        int last = 0;
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            String replacement = replacement(value.charAt(i));
+            if (replacement == null) {
+                continue;
+            }
+            if (last < i) {
+                out.append(value, last, i);
+            }
+            out.append(replacement);
+            last = i + 1;
+        }
+        if (last < length) {
+            out.append(value, last, length);
+        }
+        return out;
+    }
+}
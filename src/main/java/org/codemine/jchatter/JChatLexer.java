@@ -0,0 +1,237 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.bukkit.ChatColor;
+
+/**
+ * Single pass tokenizer for text using the '&amp;' color and style codes.
+ * <p>The input is walked once and split into runs, each run being a block of codes followed by the text up
+ * to the next block. Each run is stored as its color, a bitmask of its styles and the span of its text, the text
+ * itself is only created when asked for, with any stray codes stripped out in place. This is for internal use only
+ * and backs {@link org.codemine.jchatter.JChat#coloredText(String)}.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+final class JChatLexer {
+
+    private static final ChatColor[] COLORS = ChatColor.values();
+
+    /**
+     * Lookup of code character to {@link org.bukkit.ChatColor} ordinal, -1 if the character does not start a run.
+     * Only lower case codes start a run.
+     */
+    private static final byte[] RUN_CODES = new byte[128];
+
+    /**
+     * Lookup of characters that form a code which is stripped from the text, this includes upper case codes.
+     */
+    private static final boolean[] STRIP_CODES = new boolean[128];
+
+    // Each run is stored as 5 ints
+    private static final int CODE_START = 0;
+    private static final int TEXT_START = 1;
+    private static final int TEXT_END = 2;
+    private static final int COLOR = 3;
+    private static final int STYLES = 4;
+    private static final int RUN_SIZE = 5;
+
+    static {
+        java.util.Arrays.fill(RUN_CODES, (byte) -1);
+        for (ChatColor color : COLORS) {
+            char code = color.getChar();
+            RUN_CODES[code] = (byte) color.ordinal();
+            STRIP_CODES[code] = true;
+            STRIP_CODES[Character.toUpperCase(code)] = true;
+        }
+    }
+
+    private final char[] chars;
+    private int[] runs = new int[RUN_SIZE * 8];
+    private int count;
+
+    private JChatLexer(final String text) {
+
+        this.chars = text.toCharArray();
+        lex();
+    }
+
+    /**
+     * Tokenize the text into its runs.
+     *
+     * @param text the text to tokenize
+     * @return the {@link JChatLexer} holding the runs found
+     */
+    static JChatLexer lex(final String text) {
+
+        return new JChatLexer(text);
+    }
+
+    private void lex() {
+
+        final char[] b = chars;
+        final int max = b.length;
+        int i = 0;
+        while (i < max - 1) {
+            if (!isRunCode(b[i], b[i + 1])) {
+                i++;
+                continue;
+            }
+            //Close the text span of the previous run
+            if (count > 0)
+                runs[(count - 1) * RUN_SIZE + TEXT_END] = i;
+
+            int color = ChatColor.WHITE.ordinal();
+            int styles = 0;
+            int start = i;
+            do {
+                ChatColor code = COLORS[RUN_CODES[b[i + 1]]];
+                if (code.isColor()) {
+                    color = code.ordinal();
+                } else if (code.isFormat()) {
+                    styles |= styleBit(code);
+                }
+                i += 2;
+            } while (i < max - 1 && isRunCode(b[i], b[i + 1]));
+
+            if (runs.length == count * RUN_SIZE)
+                runs = java.util.Arrays.copyOf(runs, runs.length * 2);
+            int r = count * RUN_SIZE;
+            runs[r + CODE_START] = start;
+            runs[r + TEXT_START] = i;
+            runs[r + TEXT_END] = max;
+            runs[r + COLOR] = color;
+            runs[r + STYLES] = styles;
+            count++;
+        }
+    }
+
+    private static boolean isRunCode(char amp, char code) {
+
+        return amp == '&' && code < 128 && RUN_CODES[code] != -1;
+    }
+
+    /**
+     * Gets the bit used to represent a style in a style bitmask.
+     *
+     * @param style the {@link org.bukkit.ChatColor} style
+     * @return the bit for the style
+     */
+    static int styleBit(ChatColor style) {
+
+        return 1 << (style.ordinal() - ChatColor.MAGIC.ordinal());
+    }
+
+    /**
+     * Gets the style for a bit in a style bitmask
+     *
+     * @param bit the bit index, 0 being {@link org.bukkit.ChatColor#MAGIC}
+     * @return the {@link org.bukkit.ChatColor} style
+     */
+    static ChatColor styleOf(int bit) {
+
+        return COLORS[ChatColor.MAGIC.ordinal() + bit];
+    }
+
+    /**
+     * Gets the number of runs found
+     *
+     * @return the number of runs
+     */
+    int count() {
+
+        return count;
+    }
+
+    /**
+     * Gets the index in the input where the codes of the run begin
+     *
+     * @param run the run index
+     * @return the start index
+     */
+    int start(int run) {
+
+        return runs[run * RUN_SIZE + CODE_START];
+    }
+
+    /**
+     * Checks if the last run has no text after its codes.
+     *
+     * @return true if the input ends with color or style codes.
+     */
+    boolean endsWithCodes() {
+
+        return count > 0 && runs[(count - 1) * RUN_SIZE + TEXT_START] == chars.length;
+    }
+
+    /**
+     * Gets the color of the run, {@link org.bukkit.ChatColor#WHITE} if the run only had styles
+     *
+     * @param run the run index
+     * @return the color
+     */
+    ChatColor color(int run) {
+
+        return COLORS[runs[run * RUN_SIZE + COLOR]];
+    }
+
+    /**
+     * Gets the style bitmask of the run
+     *
+     * @param run the run index
+     * @return the style bitmask, see {@link #styleBit(org.bukkit.ChatColor)}
+     */
+    int styles(int run) {
+
+        return runs[run * RUN_SIZE + STYLES];
+    }
+
+    /**
+     * Gets the text of the run with any remaining color codes stripped out.
+     *
+     * @param run the run index
+     * @return the text
+     */
+    String text(int run) {
+
+        final char[] b = chars;
+        final int start = runs[run * RUN_SIZE + TEXT_START];
+        final int end = runs[run * RUN_SIZE + TEXT_END];
+        //Strip in place, the write index never passes the read index and each run owns its span
+        int w = start;
+        for (int i = start; i < end; i++) {
+            char c = b[i];
+            if ((c == '&' || c == ChatColor.COLOR_CHAR) && i + 1 < end && b[i + 1] < 128 && STRIP_CODES[b[i + 1]]) {
+                i++;
+                continue;
+            }
+            b[w++] = c;
+        }
+        return new String(b, start, w - start);
+    }
+}
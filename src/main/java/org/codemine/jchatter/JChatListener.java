@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+
+/**
+ * Keeps JChatters per player state up to date as players join and leave.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatListener implements Listener {
+
+    private final JChatAudiences audiences;
+    private final JChatPlayerIndex playerIndex;
+    private final JChatPlaceholders placeholders;
+
+    /**
+     * Instantiates a new JChatListener
+     *
+     * @param audiences    the audience indexes to keep up to date
+     * @param playerIndex  the index of online players to keep up to date
+     * @param placeholders the placeholders whose cached values and registrations are cleaned up
+     */
+    public JChatListener(final JChatAudiences audiences, final JChatPlayerIndex playerIndex, final JChatPlaceholders placeholders) {
+
+        this.audiences = audiences;
+        this.playerIndex = playerIndex;
+        this.placeholders = placeholders;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+
+        playerIndex.add(event.getPlayer());
+    }
+
+    // Permission plugins apply their attachments during join, so the permissions are only checked once they have run
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoinMonitor(PlayerJoinEvent event) {
+
+        audiences.join(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+
+        audiences.changeWorld(event.getPlayer(), event.getFrom().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+
+        playerIndex.remove(event.getPlayer().getUniqueId());
+        audiences.quit(event.getPlayer());
+        JChatThrottle throttle = JChatSender.getThrottle();
+        if (throttle != null)
+            throttle.forget(event.getPlayer().getUniqueId());
+        placeholders.forget(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+
+        placeholders.unregisterAll(event.getPlugin());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.codemine.jchatter.Interfaces.IBroadcastTransport;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A {@link org.codemine.jchatter.Interfaces.IBroadcastTransport} that delivers batches within the same JVM.
+ * <p>This is the transport JChatter starts with, on a single server network wide broadcasts are simply delivered to
+ * that server. Further transports joined to the same in process network can be created with {@link #connect()}, give
+ * each to its own {@link org.codemine.jchatter.JChatBus} and every bus acts as a separate server, which is useful for
+ * testing. Batches are passed to every receiver on the thread that published them.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatLoopbackTransport implements IBroadcastTransport {
+
+    private final CopyOnWriteArrayList<Consumer<byte[]>> network;
+    private volatile Consumer<byte[]> receiver;
+
+    /**
+     * Instantiates a new JChatLoopbackTransport on a network of its own
+     */
+    public JChatLoopbackTransport() {
+
+        this(new CopyOnWriteArrayList<>());
+    }
+
+    private JChatLoopbackTransport(final CopyOnWriteArrayList<Consumer<byte[]>> network) {
+
+        this.network = network;
+    }
+
+    /**
+     * Creates another transport on the same network, batches published by either are received by both.
+     *
+     * @return the new {@link org.codemine.jchatter.JChatLoopbackTransport}
+     */
+    public JChatLoopbackTransport connect() {
+
+        return new JChatLoopbackTransport(network);
+    }
+
+    @Override
+    public String getName() {
+
+        return "Loopback";
+    }
+
+    @Override
+    public synchronized void open(final Consumer<byte[]> receiver) {
+
+        Validate.notNull(receiver, "The receiver can not be null");
+        Validate.isTrue(this.receiver == null, "The transport is already open");
+        this.receiver = receiver;
+        network.add(receiver);
+    }
+
+    @Override
+    public void publish(final byte[] batch) {
+
+        Validate.notNull(batch, "The batch can not be null");
+        for (Consumer<byte[]> server : network) {
+            server.accept(batch);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+
+        if (receiver != null) {
+            network.remove(receiver);
+            receiver = null;
+        }
+    }
+
+    /**
+     * Gets the number of open transports on the network
+     *
+     * @return the number of servers batches are delivered to
+     */
+    public int getServers() {
+
+        return network.size();
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.bukkit.ChatColor;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The parts of a {@link org.codemine.jchatter.JChat} message stored as parallel arrays.
+ * <p>Rather than an object per part with its own list of styles, each part is an index into a set of arrays.
+ * The color is stored as a byte holding its {@link org.bukkit.ChatColor} ordinal, the styles as a byte bitmask
+ * and the click and hover actions as a byte index into a fixed table of action names, leaving only the text and
+ * the event data as references.
+ * <p>The JSON of each part is cached once rendered and only that part is rendered again after it changes, so a
+ * message that grows or has its last part tweaked between renders only pays for the parts that changed.
+ * This is for internal use only.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+final class JChatParts {
+
+    private static final ChatColor[] COLORS = ChatColor.values();
+    private static final byte WHITE = (byte) ChatColor.WHITE.ordinal();
+
+    /**
+     * The event action names, index 0 means no action is set
+     */
+    private static final String[] ACTIONS = {null, "open_url", "open_file", "run_command", "suggest_command",
+            "change_page", "show_text", "show_achievement", "show_item", "show_entity"};
+
+    private static final String[] CLICK_FRAGMENTS = new String[ACTIONS.length];
+    private static final String[] HOVER_FRAGMENTS = new String[ACTIONS.length];
+
+    static {
+        for (int i = 1; i < ACTIONS.length; i++) {
+            String action = '"' + ACTIONS[i] + '"' + JChatJson.VALUE;
+            CLICK_FRAGMENTS[i] = JChatJson.CLICK_EVENT + action;
+            HOVER_FRAGMENTS[i] = JChatJson.HOVER_EVENT + action;
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    int size;
+    String[] text = new String[INITIAL_CAPACITY];
+    byte[] color = new byte[INITIAL_CAPACITY];
+    byte[] styles = new byte[INITIAL_CAPACITY];
+    byte[] click = new byte[INITIAL_CAPACITY];
+    byte[] hover = new byte[INITIAL_CAPACITY];
+    String[] clickData = new String[INITIAL_CAPACITY];
+    String[] hoverData = new String[INITIAL_CAPACITY];
+    private String[] json = new String[INITIAL_CAPACITY];
+
+    /**
+     * Gets the index of an event action name.
+     *
+     * @param name the action name
+     * @return the index of the action
+     * @throws java.lang.IllegalArgumentException if the action is not known
+     */
+    static byte action(final String name) throws IllegalArgumentException {
+
+        for (int i = 1; i < ACTIONS.length; i++) {
+            if (ACTIONS[i].equals(name))
+                return (byte) i;
+        }
+        throw new IllegalArgumentException(name + " is not a valid event action");
+    }
+
+    /**
+     * Gets the name of an event action.
+     *
+     * @param action the index of the action
+     * @return the action name or null if no action is set or the index is not valid
+     */
+    static String actionName(final byte action) {
+
+        return action > 0 && action < ACTIONS.length ? ACTIONS[action] : null;
+    }
+
+    /**
+     * Adds a new part with the default color and no styles or events.
+     *
+     * @param partText the text of the part, can be null
+     * @return the index of the new part
+     */
+    int add(final String partText) {
+
+        if (size == text.length) {
+            int capacity = size << 1;
+            text = Arrays.copyOf(text, capacity);
+            color = Arrays.copyOf(color, capacity);
+            styles = Arrays.copyOf(styles, capacity);
+            click = Arrays.copyOf(click, capacity);
+            hover = Arrays.copyOf(hover, capacity);
+            clickData = Arrays.copyOf(clickData, capacity);
+            hoverData = Arrays.copyOf(hoverData, capacity);
+            json = Arrays.copyOf(json, capacity);
+        }
+        int part = size++;
+        text[part] = partText;
+        color[part] = WHITE;
+        return part;
+    }
+
+    /**
+     * Copies the content of the parts, without their cached JSON.
+     *
+     * @return the copy
+     */
+    JChatParts copy() {
+
+        JChatParts copy = new JChatParts();
+        int capacity = Math.max(size, 1);
+        copy.size = size;
+        copy.text = Arrays.copyOf(text, capacity);
+        copy.color = Arrays.copyOf(color, capacity);
+        copy.styles = Arrays.copyOf(styles, capacity);
+        copy.click = Arrays.copyOf(click, capacity);
+        copy.hover = Arrays.copyOf(hover, capacity);
+        copy.clickData = Arrays.copyOf(clickData, capacity);
+        copy.hoverData = Arrays.copyOf(hoverData, capacity);
+        copy.json = new String[capacity];
+        return copy;
+    }
+
+    /**
+     * Gets a hash of the content of every part.
+     *
+     * @return the hash
+     */
+    int contentHash() {
+
+        int hash = size;
+        for (int part = 0; part < size; part++) {
+            hash = 31 * hash + Objects.hashCode(text[part]);
+            hash = 31 * hash + color[part];
+            hash = 31 * hash + styles[part];
+            hash = 31 * hash + click[part];
+            hash = 31 * hash + Objects.hashCode(clickData[part]);
+            hash = 31 * hash + hover[part];
+            hash = 31 * hash + Objects.hashCode(hoverData[part]);
+        }
+        return hash;
+    }
+
+    /**
+     * Checks if the other parts have exactly the same content.
+     *
+     * @param other the other parts
+     * @return true if every part has the same text, color, styles and events
+     */
+    boolean contentEquals(final JChatParts other) {
+
+        if (size != other.size)
+            return false;
+        for (int part = 0; part < size; part++) {
+            if (color[part] != other.color[part] || styles[part] != other.styles[part]
+                    || click[part] != other.click[part] || hover[part] != other.hover[part]
+                    || !Objects.equals(text[part], other.text[part])
+                    || !Objects.equals(clickData[part], other.clickData[part])
+                    || !Objects.equals(hoverData[part], other.hoverData[part]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes all parts.
+     */
+    void clear() {
+
+        Arrays.fill(text, 0, size, null);
+        Arrays.fill(styles, 0, size, (byte) 0);
+        Arrays.fill(click, 0, size, (byte) 0);
+        Arrays.fill(hover, 0, size, (byte) 0);
+        Arrays.fill(clickData, 0, size, null);
+        Arrays.fill(hoverData, 0, size, null);
+        Arrays.fill(json, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Drops the cached JSON of a part, this must be called after any of the part's values are changed.
+     *
+     * @param part the index of the part
+     */
+    void changed(final int part) {
+
+        json[part] = null;
+    }
+
+    /**
+     * Drops the cached JSON of every part.
+     */
+    void changedAll() {
+
+        Arrays.fill(json, 0, size, null);
+    }
+
+    /**
+     * Gets the index of the last part.
+     *
+     * @return the index of the last part
+     */
+    int latest() {
+
+        return size - 1;
+    }
+
+    /**
+     * Gets the color of a part.
+     *
+     * @param part the index of the part
+     * @return the {@link org.bukkit.ChatColor}
+     */
+    ChatColor color(final int part) {
+
+        return COLORS[color[part]];
+    }
+
+    /**
+     * Appends every part using the '&sect;' color and style codes, events are left out.
+     *
+     * @param out the {@link java.lang.StringBuilder} to append to
+     * @return the {@link java.lang.StringBuilder} passed in
+     */
+    StringBuilder legacy(final StringBuilder out) {
+
+        for (int part = 0; part < size; part++) {
+            out.append(COLORS[color[part]]);
+            for (int bits = styles[part], bit = 0; bits != 0; bit++, bits >>>= 1) {
+                if ((bits & 1) != 0)
+                    out.append(JChatLexer.styleOf(bit));
+            }
+            if (text[part] != null)
+                out.append(text[part]);
+        }
+        return out;
+    }
+
+    /**
+     * Writes the whole message as JSON, a single part is written on its own, more than one are written as the extra
+     * parts of an empty text part.
+     *
+     * @param out the {@link JChatWriter} to write to
+     * @return the {@link JChatWriter}
+     */
+    JChatWriter writeJson(final JChatWriter out) {
+
+        if (size == 1) {
+            return writeJson(0, out);
+        }
+        out.raw(JChatJson.EXTRA);
+        for (int part = 0; part < size; part++) {
+            if (part > 0)
+                out.raw(',');
+            writeJson(part, out);
+        }
+        return out.raw("]}");
+    }
+
+    /**
+     * Writes a part as a JSON object, using the cached JSON if the part has not changed since it was last written.
+     *
+     * @param part the index of the part
+     * @param out  the {@link JChatWriter} to write to
+     * @return the {@link JChatWriter}
+     */
+    JChatWriter writeJson(final int part, final JChatWriter out) {
+
+        String cached = json[part];
+        if (cached != null)
+            return out.raw(cached);
+        int start = out.length();
+        render(part, out);
+        json[part] = out.substring(start);
+        return out;
+    }
+
+    private JChatWriter render(final int part, final JChatWriter json) {
+
+        json.raw(JChatJson.TEXT).string(text[part]).raw(JChatJson.color(COLORS[color[part]]));
+        for (int bits = styles[part], bit = 0; bits != 0; bit++, bits >>>= 1) {
+            if ((bits & 1) != 0)
+                json.raw(JChatJson.style(JChatLexer.styleOf(bit)));
+        }
+        if (click[part] != 0 && clickData[part] != null) {
+            json.raw(CLICK_FRAGMENTS[click[part]]).string(clickData[part]).raw('}');
+        }
+        if (hover[part] != 0 && hoverData[part] != null) {
+            json.raw(HOVER_FRAGMENTS[hover[part]]).string(hoverData[part]).raw('}');
+        }
+        return json.raw('}');
+    }
+}
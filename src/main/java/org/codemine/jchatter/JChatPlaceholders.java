@@ -0,0 +1,322 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.codemine.jchatter.Interfaces.IPlaceholderResolver;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Named placeholders filled in for each player when a message is sent, obtain it using {@link JChatter#getPlaceholders()}.
+ * <p>Plugins register an {@link org.codemine.jchatter.Interfaces.IPlaceholderResolver} for a name, any message can
+ * then contain that name in braces, <strong>{balance}</strong>, in its text, tooltips or click events. Placeholders are
+ * resolved lazily, only the ones that appear in the message being sent are looked up, and each value is cached for the
+ * player for the time given when it was registered. Names that are not registered are left in the message as they are.
+ * Placeholders are not filled in inside item tooltips, where a value could break the item data.
+ * <pre>
+ * {@code
+ *     JChatter.getPlaceholders().register(plugin, "balance", 5, TimeUnit.SECONDS, p -> economy.format(economy.getBalance(p)));
+ *
+ *     JChatter.getPlaceholders().send(player, new JChat().coloredText("&aYou have &6{balance}").command("/bal"));
+ *     }
+ * </pre>
+ * <p>All methods are thread safe.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatPlaceholders {
+
+    private final ConcurrentHashMap<String, Placeholder> placeholders = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, ConcurrentHashMap<String, Value>> values = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a placeholder, replacing any placeholder already registered with the same name.
+     *
+     * @param plugin   the plugin registering the placeholder
+     * @param name     the name used in messages without the braces, letters, digits, '_', '.' and '-' only
+     * @param ttl      how long a resolved value is cached for each player, 0 to resolve it every time it is used
+     * @param unit     the {@link java.util.concurrent.TimeUnit} of the ttl
+     * @param resolver the {@link org.codemine.jchatter.Interfaces.IPlaceholderResolver} supplying the values
+     */
+    public void register(final Plugin plugin, final String name, final long ttl, final TimeUnit unit, final IPlaceholderResolver resolver) {
+
+        Validate.notNull(plugin, "The plugin can not be null");
+        Validate.notNull(name, "The placeholder name can not be null");
+        Validate.notNull(unit, "The time unit can not be null");
+        Validate.notNull(resolver, "The resolver can not be null");
+        Validate.isTrue(ttl >= 0, "The placeholder ttl can not be negative");
+        Validate.isTrue(name.length() > 0 && end(name, 0) == name.length(), "Invalid placeholder name " + name);
+        placeholders.put(name, new Placeholder(plugin, resolver, unit.toNanos(ttl)));
+        invalidate(name);
+    }
+
+    /**
+     * Registers a placeholder that is resolved every time it is used.
+     *
+     * @param plugin   the plugin registering the placeholder
+     * @param name     the name used in messages without the braces
+     * @param resolver the {@link org.codemine.jchatter.Interfaces.IPlaceholderResolver} supplying the values
+     */
+    public void register(final Plugin plugin, final String name, final IPlaceholderResolver resolver) {
+
+        register(plugin, name, 0L, TimeUnit.MILLISECONDS, resolver);
+    }
+
+    /**
+     * Removes a placeholder.
+     *
+     * @param name the name of the placeholder
+     * @return true if the placeholder was registered
+     */
+    public boolean unregister(final String name) {
+
+        Validate.notNull(name, "The placeholder name can not be null");
+        boolean removed = placeholders.remove(name) != null;
+        invalidate(name);
+        return removed;
+    }
+
+    /**
+     * Removes every placeholder registered by a plugin, this is done automatically when the plugin is disabled.
+     *
+     * @param plugin the plugin
+     * @return the number of placeholders removed
+     */
+    public int unregisterAll(final Plugin plugin) {
+
+        Validate.notNull(plugin, "The plugin can not be null");
+        int removed = 0;
+        for (Iterator<Map.Entry<String, Placeholder>> it = placeholders.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Placeholder> entry = it.next();
+            if (entry.getValue().plugin.equals(plugin)) {
+                it.remove();
+                invalidate(entry.getKey());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Checks if a placeholder is registered.
+     *
+     * @param name the name of the placeholder
+     * @return true if it is registered
+     */
+    public boolean isRegistered(final String name) {
+
+        return placeholders.containsKey(name);
+    }
+
+    /**
+     * Drops the cached values of a placeholder for every player, use this when the value is known to have changed.
+     *
+     * @param name the name of the placeholder
+     */
+    public void invalidate(final String name) {
+
+        for (ConcurrentHashMap<String, Value> cached : values.values()) {
+            cached.remove(name);
+        }
+    }
+
+    /**
+     * Drops every cached value for a player, this is done automatically when the player leaves.
+     *
+     * @param player the players UUID
+     */
+    public void forget(final UUID player) {
+
+        values.remove(player);
+    }
+
+    /**
+     * Gets the value of a placeholder for a player, from the cache if it has not expired.
+     *
+     * @param player the player
+     * @param name   the name of the placeholder
+     * @return the value or null if the placeholder is not registered or has no value for the player
+     */
+    public String resolve(final Player player, final String name) {
+
+        Validate.notNull(player, "The player can not be null");
+        Placeholder placeholder = placeholders.get(name);
+        if (placeholder == null) {
+            return null;
+        }
+        if (placeholder.ttlNanos == 0) {
+            return placeholder.resolver.resolve(player);
+        }
+        ConcurrentHashMap<String, Value> cached = values.get(player.getUniqueId());
+        if (cached == null) {
+            // A send finishing after the player left would otherwise recreate the cache after it was forgotten
+            if (!player.isOnline()) {
+                return placeholder.resolver.resolve(player);
+            }
+            cached = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, Value> raced = values.putIfAbsent(player.getUniqueId(), cached);
+            if (raced != null)
+                cached = raced;
+        }
+        long now = System.nanoTime();
+        Value value = cached.get(name);
+        // Compared by age, a ttl close to Long.MAX_VALUE would overflow as an expiry time
+        if (value == null || now - value.created >= placeholder.ttlNanos) {
+            value = new Value(placeholder.resolver.resolve(player), now);
+            cached.put(name, value);
+        }
+        return value.value;
+    }
+
+    /**
+     * Fills in the placeholders in plain text for a player.
+     *
+     * @param player the player the values are resolved for
+     * @param text   the text containing placeholders
+     * @return the text with every known placeholder replaced
+     */
+    public String apply(final Player player, final String text) {
+
+        Validate.notNull(text, "The text can not be null");
+        return apply(player, text, false);
+    }
+
+    /**
+     * Fills in the placeholders in a JSON message for a player, the values are escaped for JSON.
+     *
+     * @param player the player the values are resolved for
+     * @param json   the JSON message containing placeholders
+     * @return the JSON message with every known placeholder replaced
+     */
+    public String applyJson(final Player player, final String json) {
+
+        Validate.notNull(json, "You must pass a JSON formatted message");
+        return apply(player, json, true);
+    }
+
+    /**
+     * Fills in the placeholders for the player and sends them the message.
+     *
+     * @param player  the player the message is sent to
+     * @param message the message containing placeholders
+     * @return true if the message was sent or queued
+     */
+    public boolean send(final Player player, final JChat message) {
+
+        Validate.notNull(message, "The message can not be null");
+        return JChatSender.deliver(player, applyJson(player, message.toJSONString()));
+    }
+
+    /**
+     * Fills in the placeholders for the player and sends them the message.
+     *
+     * @param player  the player the message is sent to
+     * @param message the message containing placeholders
+     * @return true if the message was sent or queued
+     */
+    public boolean send(final Player player, final FrozenJChat message) {
+
+        Validate.notNull(message, "The message can not be null");
+        return JChatSender.deliver(player, applyJson(player, message.toJSONString()));
+    }
+
+    private String apply(final Player player, final String text, final boolean json) {
+
+        StringBuilder out = null;
+        int last = 0;
+        int open = text.indexOf('{');
+        while (open != -1) {
+            int close = end(text, open + 1);
+            // Values are only JSON escaped, inside item tooltip data they could break the item's NBT
+            if (close < text.length() && close > open + 1 && text.charAt(close) == '}'
+                    && !(json && JChatJson.inItemValue(text, open))) {
+                String value = resolve(player, text.substring(open + 1, close));
+                if (value != null) {
+                    if (out == null)
+                        out = new StringBuilder(text.length() + 32);
+                    out.append(text, last, open);
+                    if (json)
+                        JChatJson.escape(value, out);
+                    else
+                        out.append(value);
+                    last = close + 1;
+                }
+            }
+            open = text.indexOf('{', close);
+        }
+        if (out == null) {
+            return text;
+        }
+        return out.append(text, last, text.length()).toString();
+    }
+
+    // Finds the end of a placeholder name starting at the index
+    private static int end(final String text, int index) {
+
+        while (index < text.length()) {
+            char c = text.charAt(index);
+            if (!(Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-'))
+                break;
+            index++;
+        }
+        return index;
+    }
+
+    private static final class Placeholder {
+
+        private final Plugin plugin;
+        private final IPlaceholderResolver resolver;
+        private final long ttlNanos;
+
+        Placeholder(final Plugin plugin, final IPlaceholderResolver resolver, final long ttlNanos) {
+
+            this.plugin = plugin;
+            this.resolver = resolver;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    private static final class Value {
+
+        private final String value;
+        private final long created;
+
+        Value(final String value, final long created) {
+
+            this.value = value;
+            this.created = created;
+        }
+    }
+}
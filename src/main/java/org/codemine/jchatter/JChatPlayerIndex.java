@@ -0,0 +1,236 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Index of online players by UUID, used by {@link org.codemine.jchatter.JChatSender} so sending by UUID does not need to
+ * ask the server to find the player each time.
+ * <p>The UUID is stored as its two long halves in an open addressing table, so a lookup creates no objects. Each entry
+ * holds the player and the tellraw command prefix for them, both worked out once when the player joins.
+ * JChatter keeps the index up to date as players join and leave.
+ * <p>The index is only changed and read on the main server thread.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatPlayerIndex {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private long[] most;
+    private long[] least;
+    private Entry[] entries;
+    private int size;
+
+    /**
+     * Instantiates a new empty JChatPlayerIndex
+     */
+    public JChatPlayerIndex() {
+
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(final int capacity) {
+
+        most = new long[capacity];
+        least = new long[capacity];
+        entries = new Entry[capacity];
+    }
+
+    private static int hash(final long mostBits, final long leastBits) {
+
+        long h = mostBits ^ leastBits;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private int slot(final long mostBits, final long leastBits) {
+
+        final int mask = entries.length - 1;
+        int i = hash(mostBits, leastBits) & mask;
+        while (entries[i] != null && (most[i] != mostBits || least[i] != leastBits)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Gets the entry for an online player
+     *
+     * @param uuid the players UUID
+     * @return the {@link JChatPlayerIndex.Entry} or null if the player is not online
+     */
+    public Entry get(final UUID uuid) {
+
+        return entries[slot(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits())];
+    }
+
+    /**
+     * Gets an online player
+     *
+     * @param uuid the players UUID
+     * @return the {@link org.bukkit.entity.Player} or null if the player is not online
+     */
+    public Player getPlayer(final UUID uuid) {
+
+        Entry entry = get(uuid);
+        return entry == null ? null : entry.player;
+    }
+
+    /**
+     * Adds a player to the index, replacing any entry with the same UUID.
+     *
+     * @param player the player who has joined
+     */
+    public void add(final Player player) {
+
+        Validate.notNull(player, "The player can not be null");
+        UUID uuid = player.getUniqueId();
+        long mostBits = uuid.getMostSignificantBits();
+        long leastBits = uuid.getLeastSignificantBits();
+        int i = slot(mostBits, leastBits);
+        if (entries[i] == null) {
+            if ((size + 1) * 2 > entries.length) {
+                resize(entries.length * 2);
+                i = slot(mostBits, leastBits);
+            }
+            size++;
+        }
+        most[i] = mostBits;
+        least[i] = leastBits;
+        entries[i] = new Entry(player);
+    }
+
+    /**
+     * Removes a player from the index.
+     *
+     * @param uuid the UUID of the player who has left
+     */
+    public void remove(final UUID uuid) {
+
+        final int mask = entries.length - 1;
+        int i = slot(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (entries[i] == null)
+            return;
+        entries[i] = null;
+        size--;
+
+        //Shift back any following entries that were displaced past the removed slot
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (entries[j] == null)
+                return;
+            int home = hash(most[j], least[j]) & mask;
+            boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!stays) {
+                most[i] = most[j];
+                least[i] = least[j];
+                entries[i] = entries[j];
+                entries[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    /**
+     * Removes every player from the index.
+     */
+    public void clear() {
+
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Gets the number of players in the index
+     *
+     * @return the number of online players indexed
+     */
+    public int size() {
+
+        return size;
+    }
+
+    private void resize(final int capacity) {
+
+        long[] oldMost = most;
+        long[] oldLeast = least;
+        Entry[] oldEntries = entries;
+        allocate(capacity);
+        for (int k = 0; k < oldEntries.length; k++) {
+            if (oldEntries[k] != null) {
+                int i = slot(oldMost[k], oldLeast[k]);
+                most[i] = oldMost[k];
+                least[i] = oldLeast[k];
+                entries[i] = oldEntries[k];
+            }
+        }
+    }
+
+    /**
+     * An online player and everything needed to deliver a message to them.
+     */
+    public static final class Entry {
+
+        private final Player player;
+        private final String commandPrefix;
+
+        Entry(final Player player) {
+
+            this.player = player;
+            this.commandPrefix = TellrawChatSender.commandPrefix(player);
+        }
+
+        /**
+         * Gets the player
+         *
+         * @return the {@link org.bukkit.entity.Player}
+         */
+        public Player getPlayer() {
+
+            return player;
+        }
+
+        /**
+         * Gets the start of the tellraw command for this player, the JSON message just needs adding to the end.
+         *
+         * @return the command prefix
+         */
+        public String getCommandPrefix() {
+
+            return commandPrefix;
+        }
+    }
+}
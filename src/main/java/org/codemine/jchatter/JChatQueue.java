@@ -0,0 +1,279 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Queue of messages waiting to be sent on the main server thread.
+ * <p>Any thread can add messages, adding is lock free and never blocks. JChatter runs the queue every tick on the main
+ * thread, delivering as many messages as it can within the configured time budget, anything left over is sent on the
+ * next tick. This keeps sending off the calling thread and spreads large bursts of messages over several ticks.
+ * <p>{@link org.codemine.jchatter.JChatSender} uses the queue automatically when called from any thread other than
+ * the main thread.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatQueue implements Runnable {
+
+    private final ConcurrentLinkedQueue<Delivery> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Logger logger;
+    private volatile long budgetNanos;
+    private volatile long delivered;
+
+    /**
+     * Instantiates a new JChatQueue
+     *
+     * @param budgetMicros the time in microseconds the queue is allowed to spend sending messages each tick
+     * @param logger       the logger used to report messages that fail to send
+     */
+    public JChatQueue(final long budgetMicros, final Logger logger) {
+
+        Validate.notNull(logger, "The logger can not be null");
+        setBudget(budgetMicros);
+        this.logger = logger;
+    }
+
+    /**
+     * Queue a message to be sent to all online players.
+     *
+     * @param json the pre made message in JSON format
+     */
+    public void toAll(final String json) {
+
+        Validate.notNull(json, "You must pass a JSON formatted message to send to the user");
+        add(new Delivery(null, null, null, json));
+    }
+
+    /**
+     * Queue a message to be sent to a player.
+     *
+     * @param player the players UUID
+     * @param json   the pre made message in JSON format
+     */
+    public void toPlayer(final UUID player, final String json) {
+
+        Validate.notNull(player, "You must pass a valid player UUID to send the message to");
+        Validate.notNull(json, "You must pass a JSON formatted message to send to the user");
+        add(new Delivery(player, null, null, json));
+    }
+
+    /**
+     * Queue a message to be sent to a player.
+     *
+     * @param player the players string name, or a target selector with the tellraw sender
+     * @param json   the pre made message in JSON format
+     */
+    public void toPlayer(final String player, final String json) {
+
+        Validate.notNull(player, "You must pass a valid player name to send the message to");
+        Validate.notNull(json, "You must pass a JSON formatted message to send to the user");
+        add(new Delivery(null, player, null, json));
+    }
+
+    /**
+     * Queue a batch of messages, each sent to the player at the same position.
+     *
+     * @param players the players UUIDs
+     * @param json    the pre made messages in JSON format, one for each player
+     */
+    public void toPlayers(final UUID[] players, final String[] json) {
+
+        Validate.notNull(players, "You must pass the players to send the messages to");
+        Validate.notNull(json, "You must pass the JSON formatted messages to send");
+        Validate.isTrue(players.length == json.length, "There must be one message for each player");
+        Validate.noNullElements(players, "You must pass a valid player UUID to send the message to");
+        Validate.noNullElements(json, "You must pass a JSON formatted message to send to the user");
+        pending.addAndGet(players.length);
+        for (int i = 0; i < players.length; i++) {
+            queue.offer(new Delivery(players[i], null, null, json[i]));
+        }
+    }
+
+    /**
+     * Queue the same message to be sent to a group of players.
+     * <p>The message is broadcast to the players still online in one call when it is sent, so the sender only converts
+     * it once however many players it goes to.
+     *
+     * @param players the players UUIDs, the array is copied
+     * @param json    the pre made message in JSON format
+     */
+    public void toPlayers(final UUID[] players, final String json) {
+
+        Validate.notNull(players, "You must pass the players to send the message to");
+        Validate.noNullElements(players, "You must pass a valid player UUID to send the message to");
+        Validate.notNull(json, "You must pass a JSON formatted message to send to the user");
+        add(new Delivery(null, null, players.clone(), json));
+    }
+
+    private void add(final Delivery delivery) {
+
+        queue.offer(delivery);
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of messages waiting to be sent
+     *
+     * @return the number of queued messages
+     */
+    public int getPending() {
+
+        return pending.get();
+    }
+
+    /**
+     * Gets the total number of messages delivered by the queue, a message sent to a group counts once for each player
+     *
+     * @return the number of messages delivered
+     */
+    public long getDelivered() {
+
+        return delivered;
+    }
+
+    /**
+     * Gets the time the queue may spend sending messages each tick
+     *
+     * @return the budget in microseconds
+     */
+    public long getBudget() {
+
+        return TimeUnit.NANOSECONDS.toMicros(budgetNanos);
+    }
+
+    /**
+     * Sets the time the queue may spend sending messages each tick. At least one message is always sent each tick.
+     *
+     * @param budgetMicros the budget in microseconds
+     */
+    public void setBudget(final long budgetMicros) {
+
+        Validate.isTrue(budgetMicros > 0, "The queue budget must be greater than 0");
+        this.budgetNanos = TimeUnit.MICROSECONDS.toNanos(budgetMicros);
+    }
+
+    /**
+     * Sends queued messages until the budget for this tick is used up.
+     * <p>This must only be run on the main server thread.
+     */
+    @Override
+    public void run() {
+
+        drain(System.nanoTime() + budgetNanos);
+    }
+
+    /**
+     * Sends every queued message ignoring the budget, used when JChatter is disabled.
+     */
+    void flush() {
+
+        Delivery delivery;
+        while ((delivery = queue.poll()) != null) {
+            send(delivery);
+        }
+    }
+
+    private void drain(final long deadline) {
+
+        Delivery delivery;
+        while ((delivery = queue.poll()) != null) {
+            send(delivery);
+            if (System.nanoTime() - deadline >= 0)
+                return;
+        }
+    }
+
+    private void send(final Delivery delivery) {
+
+        pending.decrementAndGet();
+        try {
+            delivered += delivery.deliver();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Unable to send a queued message", e);
+        }
+    }
+
+    private static final class Delivery {
+
+        private final UUID uuid;
+        private final String name;
+        private final UUID[] group;
+        private final String json;
+
+        Delivery(final UUID uuid, final String name, final UUID[] group, final String json) {
+
+            this.uuid = uuid;
+            this.name = name;
+            this.group = group;
+            this.json = json;
+        }
+
+        /**
+         * Sends the message.
+         *
+         * @return the number of players the message was delivered to
+         */
+        int deliver() {
+
+            if (group != null) {
+                List<Player> players = new ArrayList<>(group.length);
+                for (UUID member : group) {
+                    JChatPlayerIndex.Entry entry = JChatSender.resolve(member);
+                    if (entry != null)
+                        players.add(entry.getPlayer());
+                }
+                return players.isEmpty() ? 0 : JChatSender.broadcastNow(players, json);
+            }
+            if (uuid == null && name == null)
+                return JChatSender.broadcastAllNow(json);
+            if (uuid != null) {
+                JChatPlayerIndex.Entry entry = JChatSender.resolve(uuid);
+                return entry != null && JChatSender.sendNow(entry, json) ? 1 : 0;
+            }
+            try {
+                return JChatSender.sendNow(name, json) ? 1 : 0;
+            } catch (NullPointerException e) {
+                // The player left before the message was sent
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.bukkit.ChatColor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads JSON chat messages back into {@link org.codemine.jchatter.JChatParts} using Gson's streaming
+ * {@link com.google.gson.stream.JsonReader}.
+ * <p>The JSON is read token by token, each component is recorded as a small node holding only its own text, color,
+ * styles and events, no JSON tree is built. Once the whole message is read the nodes are flattened in document
+ * order into parts, with each component inheriting the color, styles and events of its parent as the client does.
+ * Both the single part form and the <tt>{"text":"","extra":[...]}</tt> form JChat writes are read, along with plain
+ * string components and top level arrays. Keys JChat has no use for, such as <tt>insertion</tt>, are skipped.
+ * This is for internal use only.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+final class JChatReader {
+
+    private static final byte UNSET = -1;
+
+    private final JsonReader in;
+    private final List<Node> nodes = new ArrayList<>();
+
+    private JChatReader(final JsonReader in) {
+
+        this.in = in;
+    }
+
+    /**
+     * Reads a JSON message, adding its parts to the end of the parts.
+     *
+     * @param json  the {@link java.io.Reader} holding the JSON
+     * @param parts the {@link JChatParts} to add to
+     * @throws java.io.IOException                if the JSON could not be read, is malformed or holds a translate, score,
+     *                                            selector or keybind component
+     * @throws java.lang.IllegalArgumentException if the JSON is not a valid chat message
+     */
+    static void read(final Reader json, final JChatParts parts) throws IOException, IllegalArgumentException {
+
+        JsonReader jsonReader = new JsonReader(json);
+        // A strict reader in the Gson shipped with Bukkit rejects a bare string as the whole message, tellraw accepts it
+        jsonReader.setLenient(true);
+        JChatReader reader = new JChatReader(jsonReader);
+        try {
+            reader.readRoot();
+            if (reader.in.peek() != JsonToken.END_DOCUMENT) {
+                throw new IllegalArgumentException("Unexpected " + reader.in.peek() + " after the message");
+            }
+        } catch (IllegalStateException e) {
+            // Thrown by JsonReader when a value is not the type expected
+            throw new IllegalArgumentException("Invalid chat message: " + e.getMessage(), e);
+        }
+        reader.flatten(parts);
+    }
+
+    private void readRoot() throws IOException {
+
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            readComponent(null);
+            return;
+        }
+        // A top level array is the first component with the rest as its extra components
+        in.beginArray();
+        Node first = in.hasNext() ? readComponent(null) : null;
+        while (in.hasNext()) {
+            first.children = true;
+            readComponent(first);
+        }
+        in.endArray();
+    }
+
+    private Node readComponent(final Node parent) throws IOException {
+
+        Node node = new Node(parent);
+        nodes.add(node);
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            node.text = string();
+            return node;
+        }
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            switch (name) {
+                case "text":
+                    node.text = string();
+                    break;
+                case "color":
+                    node.color = color(in.nextString());
+                    break;
+                case "obfuscated":
+                    style(node, ChatColor.MAGIC);
+                    break;
+                case "bold":
+                    style(node, ChatColor.BOLD);
+                    break;
+                case "strikethrough":
+                    style(node, ChatColor.STRIKETHROUGH);
+                    break;
+                case "underlined":
+                    style(node, ChatColor.UNDERLINE);
+                    break;
+                case "italic":
+                    style(node, ChatColor.ITALIC);
+                    break;
+                case "clickEvent":
+                    node.clickData = event(node, true);
+                    break;
+                case "hoverEvent":
+                    node.hoverData = event(node, false);
+                    break;
+                case "extra":
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        node.children = true;
+                        readComponent(node);
+                    }
+                    in.endArray();
+                    break;
+                case "translate":
+                case "with":
+                case "score":
+                case "selector":
+                case "keybind":
+                    // Their text is worked out by the client, dropping them would silently lose content
+                    throw new IOException("Unsupported component, " + name + " components can not be read into a JChat");
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return node;
+    }
+
+    private String string() throws IOException {
+
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private void style(final Node node, final ChatColor style) throws IOException {
+
+        boolean on = in.peek() == JsonToken.STRING ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();
+        int bit = JChatLexer.styleBit(style);
+        node.styleSet |= bit;
+        if (on)
+            node.styleOn |= bit;
+    }
+
+    private String event(final Node node, final boolean click) throws IOException {
+
+        String action = null;
+        String value = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (name.equals("action")) {
+                action = in.nextString();
+            } else if (name.equals("value")) {
+                if (in.peek() == JsonToken.BEGIN_OBJECT || in.peek() == JsonToken.BEGIN_ARRAY) {
+                    // A hover text given as a component is kept as legacy text, the way JChat stores tooltips
+                    JChatReader nested = new JChatReader(in);
+                    nested.readRoot();
+                    JChatParts text = new JChatParts();
+                    nested.flatten(text);
+                    value = text.legacy(new StringBuilder()).toString();
+                } else {
+                    value = string();
+                }
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        if (action == null) {
+            throw new IllegalArgumentException("The " + (click ? "clickEvent" : "hoverEvent") + " has no action");
+        }
+        if (click) {
+            node.click = JChatParts.action(action);
+        } else {
+            node.hover = JChatParts.action(action);
+        }
+        return value;
+    }
+
+    private static byte color(final String name) {
+
+        ChatColor color;
+        try {
+            color = ChatColor.valueOf(name.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + " is not a color");
+        }
+        if (color == ChatColor.RESET) {
+            color = ChatColor.WHITE;
+        }
+        if (!color.isColor()) {
+            throw new IllegalArgumentException(name + " is not a color");
+        }
+        return (byte) color.ordinal();
+    }
+
+    /**
+     * Resolves what each node inherits from its parent and adds the nodes holding text as parts. Nodes are in document
+     * order so a parent is always resolved before its children.
+     */
+    private void flatten(final JChatParts parts) {
+
+        for (Node node : nodes) {
+            Node parent = node.parent;
+            if (node.color == UNSET)
+                node.color = parent == null ? (byte) ChatColor.WHITE.ordinal() : parent.color;
+            if (parent != null) {
+                node.styleOn |= parent.styleOn & ~node.styleSet;
+                if (node.click == 0) {
+                    node.click = parent.click;
+                    node.clickData = parent.clickData;
+                }
+                if (node.hover == 0) {
+                    node.hover = parent.hover;
+                    node.hoverData = parent.hoverData;
+                }
+            }
+            // A component with no text of its own that only holds its extra components is not a part
+            if (node.children && (node.text == null || node.text.isEmpty()))
+                continue;
+            int part = parts.add(node.text);
+            parts.color[part] = node.color;
+            parts.styles[part] = (byte) node.styleOn;
+            parts.click[part] = node.click;
+            parts.clickData[part] = node.clickData;
+            parts.hover[part] = node.hover;
+            parts.hoverData[part] = node.hoverData;
+        }
+    }
+
+    private static final class Node {
+
+        private final Node parent;
+        private String text;
+        private byte color = UNSET;
+        private int styleSet;
+        private int styleOn;
+        private byte click;
+        private String clickData;
+        private byte hover;
+        private String hoverData;
+        private boolean children;
+
+        Node(final Node parent) {
+
+            this.parent = parent;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.plugin.Plugin;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A registry of pre built messages shared by every plugin using JChatter, obtain it using {@link JChatter#getRegistry()}.
+ * <p>Messages are stored by a namespace, normally the plugins name, and a key. Only the rendered message is kept, as a
+ * {@link org.codemine.jchatter.FrozenJChat}, so a message is built once and then sent as often as needed.
+ * The registry holds at most the configured number of messages, when full the least recently used message is removed.
+ * <p>The registry is saved to <tt>messages.dat</tt> in the JChatter data folder when the server stops and loaded
+ * again at startup, so registered messages do not have to be rebuilt after a reload.
+ * <pre>
+ * {@code
+ *     if (!JChatter.getRegistry().contains(plugin, "welcome")) {
+ *         new JChat().coloredText("&a&lWelcome to &6&lThe Server").save(plugin, "welcome");
+ *     }
+ *     JChatter.getRegistry().get(plugin, "welcome").send(player);
+ *     }
+ * </pre>
+ * <p>All methods are synchronized so the registry can be used from any thread.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatRegistry {
+
+    private static final int MAGIC = 0x4A434852;
+    private static final int VERSION = 1;
+    // Two empty UTF strings and two empty byte arrays, the smallest an entry can be
+    private static final int MIN_ENTRY_SIZE = 12;
+
+    private final File file;
+    private final int maxSize;
+    private final LinkedHashMap<String, Entry> messages;
+
+    /**
+     * Instantiates a new JChatRegistry
+     *
+     * @param file    the file the registry is saved to and loaded from
+     * @param maxSize the maximum number of messages held before the least recently used are removed
+     */
+    public JChatRegistry(final File file, final int maxSize) {
+
+        Validate.notNull(file, "The registry file can not be null");
+        Validate.isTrue(maxSize > 0, "The registry max size must be greater than 0");
+        this.file = file;
+        this.maxSize = maxSize;
+        this.messages = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+
+                return size() > JChatRegistry.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Register a message, replacing any message already registered with the same key.
+     *
+     * @param plugin  the plugin registering the message, its name is used as the namespace
+     * @param key     the key of the message
+     * @param message the message to register, it is frozen when registered
+     * @return the {@link org.codemine.jchatter.FrozenJChat} that was registered
+     */
+    public FrozenJChat register(final Plugin plugin, final String key, final JChat message) {
+
+        Validate.notNull(plugin, "The plugin can not be null");
+        Validate.notNull(message, "The message can not be null");
+        return register(plugin.getName(), key, message.freeze());
+    }
+
+    /**
+     * Register a message, replacing any message already registered with the same namespace and key.
+     *
+     * @param namespace the namespace of the message, it can not contain ':'
+     * @param key       the key of the message
+     * @param message   the message to register
+     * @return the {@link org.codemine.jchatter.FrozenJChat} that was registered
+     */
+    public synchronized FrozenJChat register(final String namespace, final String key, final FrozenJChat message) {
+
+        Validate.notNull(namespace, "The namespace can not be null");
+        Validate.isTrue(namespace.indexOf(':') == -1, "The namespace can not contain ':'");
+        Validate.notNull(key, "The key can not be null");
+        Validate.notNull(message, "The message can not be null");
+        messages.put(id(namespace, key), new Entry(namespace, key, message));
+        return message;
+    }
+
+    /**
+     * Gets a registered message
+     *
+     * @param plugin the plugin that registered the message
+     * @param key    the key of the message
+     * @return the {@link org.codemine.jchatter.FrozenJChat} or null if there is no message registered
+     */
+    public FrozenJChat get(final Plugin plugin, final String key) {
+
+        Validate.notNull(plugin, "The plugin can not be null");
+        return get(plugin.getName(), key);
+    }
+
+    /**
+     * Gets a registered message
+     *
+     * @param namespace the namespace of the message
+     * @param key       the key of the message
+     * @return the {@link org.codemine.jchatter.FrozenJChat} or null if there is no message registered
+     */
+    public synchronized FrozenJChat get(final String namespace, final String key) {
+
+        Entry entry = messages.get(id(namespace, key));
+        return entry == null ? null : entry.message;
+    }
+
+    /**
+     * Checks if a message is registered, this does not count as a use of the message.
+     *
+     * @param plugin the plugin that registered the message
+     * @param key    the key of the message
+     * @return true if the message is registered
+     */
+    public synchronized boolean contains(final Plugin plugin, final String key) {
+
+        Validate.notNull(plugin, "The plugin can not be null");
+        return messages.containsKey(id(plugin.getName(), key));
+    }
+
+    /**
+     * Removes a registered message
+     *
+     * @param plugin the plugin that registered the message
+     * @param key    the key of the message
+     * @return the {@link org.codemine.jchatter.FrozenJChat} removed or null if there was no message registered
+     */
+    public synchronized FrozenJChat remove(final Plugin plugin, final String key) {
+
+        Validate.notNull(plugin, "The plugin can not be null");
+        Entry entry = messages.remove(id(plugin.getName(), key));
+        return entry == null ? null : entry.message;
+    }
+
+    /**
+     * Removes all messages registered by the plugin
+     *
+     * @param plugin the plugin that registered the messages
+     */
+    public synchronized void clear(final Plugin plugin) {
+
+        Validate.notNull(plugin, "The plugin can not be null");
+        Iterator<Entry> iterator = messages.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().namespace.equals(plugin.getName()))
+                iterator.remove();
+        }
+    }
+
+    /**
+     * Gets the number of registered messages
+     *
+     * @return the number of messages
+     */
+    public synchronized int size() {
+
+        return messages.size();
+    }
+
+    /**
+     * Gets the maximum number of messages held
+     *
+     * @return the max size
+     */
+    public int getMaxSize() {
+
+        return maxSize;
+    }
+
+    /**
+     * Saves all registered messages to the registry file.
+     * <p>Messages are written least recently used first so the order survives a reload. The file is written to a
+     * temporary file first and then moved into place, so a crash while saving leaves the previous file intact.
+     *
+     * @throws java.io.IOException if the file could not be written
+     */
+    public void save() throws IOException {
+
+        List<Entry> entries;
+        synchronized (this) {
+            entries = new ArrayList<>(messages.values());
+        }
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Unable to create the folder " + parent);
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeUTF(entry.namespace);
+                out.writeUTF(entry.key);
+                writeBytes(out, entry.message.toJSONBytes());
+                writeString(out, entry.message.toOldMessageFormat());
+            }
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Loads the messages from the registry file, messages already registered with the same key are replaced.
+     * If the file does not exist nothing is loaded.
+     *
+     * @return the number of messages loaded
+     * @throws java.io.IOException if the file could not be read, is not a registry file or is corrupt
+     */
+    public int load() throws IOException {
+
+        if (!file.exists()) {
+            return 0;
+        }
+        final long size = file.length();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file.getName() + " is not a JChatter registry file");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported registry file version " + version);
+            }
+            int count = in.readInt();
+            if (count < 0 || count > size / MIN_ENTRY_SIZE) {
+                throw new IOException(file.getName() + " is corrupt, invalid message count " + count);
+            }
+            for (int i = 0; i < count; i++) {
+                String namespace = in.readUTF();
+                String key = in.readUTF();
+                byte[] json = readBytes(in, size);
+                String oldMessage = new String(readBytes(in, size), StandardCharsets.UTF_8);
+                try {
+                    register(namespace, key, new FrozenJChat(new String(json, StandardCharsets.UTF_8), json, oldMessage));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(file.getName() + " is corrupt, " + e.getMessage(), e);
+                }
+            }
+            return count;
+        }
+    }
+
+    private static String id(final String namespace, final String key) {
+
+        return namespace + ':' + key;
+    }
+
+    // writeUTF is limited to 64k which large messages can exceed
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(final DataOutputStream out, final byte[] bytes) throws IOException {
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(final DataInputStream in, final long max) throws IOException {
+
+        int length = in.readInt();
+        if (length < 0 || length > max) {
+            throw new IOException("Invalid length " + length + ", the registry file is corrupt");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static final class Entry {
+
+        final String namespace;
+        final String key;
+        final FrozenJChat message;
+
+        Entry(final String namespace, final String key, final FrozenJChat message) {
+
+            this.namespace = namespace;
+            this.key = key;
+            this.message = message;
+        }
+    }
+}
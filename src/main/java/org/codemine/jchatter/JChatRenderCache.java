@@ -0,0 +1,212 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional cache of rendered JSON shared by every {@link org.codemine.jchatter.JChat}, whichever plugin built it.
+ * <p>Messages are looked up by their content, the text, color, styles and events of every part, so two messages built
+ * separately but with the same content share a single rendered JSON string. Only the first is rendered, the rest reuse
+ * its JSON and hold a reference to the same String instead of their own copy.
+ * <p>The cache is disabled by default, it is enabled with <tt>render-cache.max-size</tt> in the JChatter config and
+ * holds at most that many messages, removing the least recently used.
+ * <p>All methods are thread safe.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public final class JChatRenderCache {
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static volatile int maxSize;
+
+    private static final LinkedHashMap<Key, String> cache = new LinkedHashMap<Key, String>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, String> eldest) {
+
+            return size() > maxSize;
+        }
+    };
+
+    private JChatRenderCache() {
+
+    }
+
+    /**
+     * Gets the shared JSON for the content of the parts, rendering and caching it if it is not cached.
+     *
+     * @param parts the message parts
+     * @return the rendered JSON
+     */
+    static String render(final JChatParts parts) {
+
+        if (maxSize == 0) {
+            return parts.writeJson(JChatWriter.get()).toString();
+        }
+        Key lookup = new Key(parts);
+        String json;
+        synchronized (cache) {
+            json = cache.get(lookup);
+        }
+        if (json != null) {
+            hits.incrementAndGet();
+            return json;
+        }
+        misses.incrementAndGet();
+        json = parts.writeJson(JChatWriter.get()).toString();
+        // The key keeps its own copy of the parts as the message can change after this
+        Key key = new Key(parts.copy(), lookup.hash);
+        synchronized (cache) {
+            String raced = cache.get(key);
+            if (raced != null) {
+                return raced;
+            }
+            cache.put(key, json);
+        }
+        return json;
+    }
+
+    /**
+     * Gets the number of renders served from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public static long getHits() {
+
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of renders that were not cached.
+     *
+     * @return the number of cache misses
+     */
+    public static long getMisses() {
+
+        return misses.get();
+    }
+
+    /**
+     * Gets the fraction of renders served from the cache.
+     *
+     * @return the hit rate between 0 and 1, 0 if nothing has been rendered through the cache
+     */
+    public static double getHitRate() {
+
+        long found = hits.get();
+        long total = found + misses.get();
+        return total == 0 ? 0 : (double) found / total;
+    }
+
+    /**
+     * Gets the number of messages currently cached.
+     *
+     * @return the number of cached messages
+     */
+    public static int size() {
+
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Gets the maximum number of messages cached.
+     *
+     * @return the maximum size, 0 if the cache is disabled
+     */
+    public static int getMaxSize() {
+
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum number of messages cached, the least recently used are removed first.
+     *
+     * @param size the maximum size, 0 disables the cache
+     */
+    public static void setMaxSize(final int size) {
+
+        Validate.isTrue(size >= 0, "The render cache max size can not be negative");
+        synchronized (cache) {
+            maxSize = size;
+            if (cache.size() > size) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Removes every cached message and resets the hit and miss counts.
+     */
+    public static void clear() {
+
+        synchronized (cache) {
+            cache.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+
+    private static final class Key {
+
+        private final JChatParts parts;
+        private final int hash;
+
+        Key(final JChatParts parts) {
+
+            this(parts, parts.contentHash());
+        }
+
+        Key(final JChatParts parts, final int hash) {
+
+            this.parts = parts;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hash == key.hash && parts.contentEquals(key.parts);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return hash;
+        }
+    }
+}
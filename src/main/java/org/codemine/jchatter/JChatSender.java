@@ -30,20 +30,38 @@ import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandException;
 import org.bukkit.entity.Player;
+import org.codemine.jchatter.Interfaces.IChatSender;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 /**
- * JChat message sender, Example class to send pre made JSON messages using the console
- * and the tellraw command. The player is not required to have the tellraw permission.
+ * JChat message sender, Example class to send pre made JSON messages to players.
+ * The player is not required to have the tellraw permission.
+ * <p>Messages are delivered by the current {@link org.codemine.jchatter.Interfaces.IChatSender}, on Spigot this hands the
+ * message straight to the player using the Spigot chat API, otherwise the console and the tellraw command are used.
+ * You can plug in your own using {@link #setSender(org.codemine.jchatter.Interfaces.IChatSender)}.
  * <p>If you use the run_command in a message the command is run as the player so normal permissions apply.
+ * <p>All methods are thread safe. When called from any thread other than the main server thread the message is added to the
+ * {@link org.codemine.jchatter.JChatQueue} and sent on the main thread during the next tick.
  *
  * @author Relicum
  * @version 0.0.1
  */
 public class JChatSender {
 
-    private static final String cmd = "tellraw ";
+    private static volatile IChatSender sender = defaultSender();
+
+    private static volatile JChatQueue queue;
+
+    private static volatile JChatThrottle throttle;
+
+    private static volatile JChatPlayerIndex playerIndex;
 
     private static String prefix;
 
@@ -59,77 +77,456 @@ public class JChatSender {
     }
 
     /**
-     * Send a JChat Message to the stored player
-     * <P>This uses the console and the tellraw command to send the message.
-     * The player will still require the correct permissions to run any click events
-     * <P>This method is fairly thread safe as it is synchronized
+     * Gets the best sender available on this server, the Spigot chat API if it is supported else tellraw.
+     *
+     * @return the default {@link org.codemine.jchatter.Interfaces.IChatSender}
+     */
+    public static IChatSender defaultSender() {
+
+        return SpigotChatSender.isSupported() ? new SpigotChatSender() : new TellrawChatSender();
+    }
+
+    /**
+     * Sets the sender used to deliver all JChat messages.
+     *
+     * @param chatSender the {@link org.codemine.jchatter.Interfaces.IChatSender} to use
+     */
+    public static void setSender(IChatSender chatSender) {
+
+        Validate.notNull(chatSender, "The sender can not be null");
+        sender = chatSender;
+    }
+
+    /**
+     * Gets the sender used to deliver all JChat messages.
+     *
+     * @return the current {@link org.codemine.jchatter.Interfaces.IChatSender}
+     */
+    public static IChatSender getSender() {
+
+        return sender;
+    }
+
+    /**
+     * Sets the queue used for messages sent from other threads, set by JChatter when it is enabled.
+     * When there is no queue messages are sent straight away on the calling thread.
+     *
+     * @param sendQueue the {@link org.codemine.jchatter.JChatQueue} or null to send straight away
+     */
+    static void setQueue(JChatQueue sendQueue) {
+
+        queue = sendQueue;
+    }
+
+    /**
+     * Gets the queue used for messages sent from other threads.
+     *
+     * @return the {@link org.codemine.jchatter.JChatQueue} or null if JChatter is not enabled
+     */
+    public static JChatQueue getQueue() {
+
+        return queue;
+    }
+
+    /**
+     * Sets the index of online players used to find players by UUID, set by JChatter when it is enabled.
+     * When there is no index players are looked up using Bukkit.
+     *
+     * @param index the {@link org.codemine.jchatter.JChatPlayerIndex} or null to use Bukkit
+     */
+    static void setPlayerIndex(JChatPlayerIndex index) {
+
+        playerIndex = index;
+    }
+
+    /**
+     * Sets the throttle used to merge duplicate messages and rate limit each player.
+     *
+     * @param sendThrottle the {@link org.codemine.jchatter.JChatThrottle} or null to send every message
+     */
+    public static void setThrottle(JChatThrottle sendThrottle) {
+
+        throttle = sendThrottle;
+    }
+
+    /**
+     * Gets the throttle used to merge duplicate messages and rate limit each player.
+     *
+     * @return the {@link org.codemine.jchatter.JChatThrottle} or null if messages are not throttled
+     */
+    public static JChatThrottle getThrottle() {
+
+        return throttle;
+    }
+
+    /**
+     * Gets the queue if the caller is not on the main thread and should queue the message.
+     *
+     * @return the queue to use or null to send straight away
+     */
+    private static JChatQueue asyncQueue() {
+
+        JChatQueue sendQueue = queue;
+        return sendQueue != null && !Bukkit.isPrimaryThread() ? sendQueue : null;
+    }
+
+    /**
+     * Send a JChat Message to all online players
+     * <P>The player will still require the correct permissions to run any click events
+     * <P>This method is thread safe, off the main thread the message is queued
      *
      * @param message the pre made message in JSON format
      * @throws java.lang.NullPointerException      if a player can't be found.
      * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
      */
-    public static synchronized void sendToAll(String message) throws NullPointerException, CommandException {
+    public static void sendToAll(String message) throws NullPointerException, CommandException {
+        broadcast(message);
+    }
+
+    /**
+     * Broadcast a JChat Message to all online players.
+     * <P>The message is converted into the form the sender delivers exactly once and that is sent to every player,
+     * instead of the message being processed separately for each player.
+     * <P>This method is thread safe, off the main thread the message is queued
+     *
+     * @param message the pre made message in JSON format
+     * @return the number of players the message was delivered to, 0 if the message was queued
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    public static int broadcast(String message) throws CommandException {
+        Validate.notNull(message, "You must pass a JSON formatted message to send to the user");
+        JChatQueue sendQueue = asyncQueue();
+        if (sendQueue != null) {
+            sendQueue.toAll(message);
+            return 0;
+        }
+        return broadcastAllNow(message);
+    }
+
+    /**
+     * Broadcast a JChat Message to a group of players.
+     * <P>The message is converted into the form the sender delivers exactly once and that is sent to every player.
+     * <P>This method is thread safe, off the main thread the message is queued
+     *
+     * @param players the players to send the message to
+     * @param message the pre made message in JSON format
+     * @return the number of players the message was delivered to, 0 if the message was queued
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    public static int broadcast(Collection<? extends Player> players, String message) throws CommandException {
+        Validate.notNull(players, "You must pass the players to send the message to");
         Validate.notNull(message, "You must pass a JSON formatted message to send to the user");
-        for (Player player : Bukkit.getOnlinePlayers()) {
+        JChatQueue sendQueue = asyncQueue();
+        if (sendQueue != null) {
+            List<UUID> uuids = new ArrayList<>(players.size());
+            for (Player player : players) {
+                uuids.add(player.getUniqueId());
+            }
+            sendQueue.toPlayers(uuids.toArray(new UUID[uuids.size()]), message);
+            return 0;
+        }
+        return broadcastNow(players, message);
+    }
+
+    /**
+     * Broadcast a personalized copy of a template to each player.
+     * <P>Each player's message is rendered from the template using the values returned for that player. Rendering is
+     * done in parallel on the common {@link java.util.concurrent.ForkJoinPool}, off the calling thread, and the finished
+     * messages are then handed to the {@link org.codemine.jchatter.JChatQueue} in one batch to be sent on the main thread.
+     * <P>The values function is called from pool threads, so it must only read data that is safe to use off the main
+     * thread, such as the players name or values your plugin has already cached.
+     * <pre>
+     * {@code
+     *     JChatTemplate rank = new JChat().coloredText("&aWell done %s you are now rank &6%s").toTemplate();
+     *     JChatSender.broadcast(rank, Bukkit.getOnlinePlayers(), p -> new String[]{p.getName(), ranks.get(p.getUniqueId())});
+     *     }
+     * </pre>
+     *
+     * @param template the {@link org.codemine.jchatter.JChatTemplate} each message is rendered from
+     * @param players  the players to send to, this is copied before returning
+     * @param values   the function giving the placeholder values for a player
+     * @return a {@link java.util.concurrent.CompletableFuture} completed with the number of messages queued once every
+     * message is rendered, or completed exceptionally if any message could not be rendered or there is no queue to hand
+     * them to because JChatter is not enabled
+     */
+    public static CompletableFuture<Integer> broadcast(final JChatTemplate template, final Collection<? extends Player> players,
+                                                       final Function<? super Player, String[]> values) {
+        Validate.notNull(template, "The template can not be null");
+        Validate.notNull(players, "The players can not be null");
+        Validate.notNull(values, "The values function can not be null");
+        final Player[] recipients = players.toArray(new Player[players.size()]);
+        return CompletableFuture.supplyAsync(() -> {
+            final String[] messages = new String[recipients.length];
+            IntStream.range(0, recipients.length).parallel()
+                    .forEach(i -> messages[i] = template.render(values.apply(recipients[i])));
+            return deliverAll(recipients, messages);
+        });
+    }
 
-            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), cmd + player.getName() + " " + message);
+    /**
+     * Hands already rendered messages to the queue in one batch to be sent on the main thread.
+     * <p>This is called from pool threads, so without a queue the messages can not be sent at all.
+     *
+     * @throws java.lang.IllegalStateException if there is no queue because JChatter is not enabled
+     */
+    private static int deliverAll(final Player[] players, final String[] messages) throws IllegalStateException {
+
+        JChatQueue sendQueue = queue;
+        if (sendQueue == null)
+            throw new IllegalStateException("JChatter is not enabled, there is no queue to send the messages from");
+        UUID[] uuids = new UUID[players.length];
+        for (int i = 0; i < players.length; i++) {
+            uuids[i] = players[i].getUniqueId();
         }
+        sendQueue.toPlayers(uuids, messages);
+        return messages.length;
     }
 
     /**
      * Send a JChat Message to a Player
-     * <P>This uses the console and the tellraw command to send the message.
-     * The player will still require the correct permissions to run any click events
-     * <P>This method is fairly thread safe as it is synchronized
+     * <P>The player will still require the correct permissions to run any click events
+     * <P>This method is thread safe, off the main thread the message is queued
+     * <P>With the tellraw sender the name is passed to the command as it is, so target selectors such as
+     * <tt>@a</tt> or <tt>@p[r=5]</tt> can be used and the throttle is not applied. Other senders need the exact name
+     * of an online player.
      *
-     * @param player  the players string name to send the message to
+     * @param player  the players string name, or a target selector with the tellraw sender
      * @param message the pre made message in JSON format
      * @throws java.lang.NullPointerException      if the player is not found.
      * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
      */
-    public static synchronized void sendToPlayer(String player, String message) throws NullPointerException, CommandException {
+    public static void sendToPlayer(String player, String message) throws NullPointerException, CommandException {
 
         Validate.notNull(player, "You must pass a valid player name to send the message to");
         Validate.notNull(message, "You must pass a JSON formatted message to send to the user");
-        Bukkit.dispatchCommand(Bukkit.getConsoleSender(), cmd + player + " " + message);
-
+        JChatQueue sendQueue = asyncQueue();
+        if (sendQueue != null) {
+            sendQueue.toPlayer(player, message);
+            return;
+        }
+        sendNow(player, message);
     }
 
     /**
      * Send a JChat Message to a Player using their UUID.
-     * <P>This uses the console and the tellraw command to send the message.
-     * The player will still require the correct permissions to run any click events
-     * <P>This method is fairly thread safe as it is synchronized
+     * <P>The player will still require the correct permissions to run any click events
+     * <P>This method is thread safe, off the main thread the message is queued
      *
      * @param player  the players UUID to send the message to
      * @param message the pre made message in JSON format
      * @throws java.lang.NullPointerException      if the player is not found
      * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
      */
-    public static synchronized void sendToPlayer(UUID player, String message) throws NullPointerException, CommandException {
+    public static void sendToPlayer(UUID player, String message) throws NullPointerException, CommandException {
 
         Validate.notNull(player, "You must pass a valid player UUID to send the message to");
         Validate.notNull(message, "You must pass a JSON formatted message to send to the user");
-
-        Bukkit.dispatchCommand(Bukkit.getConsoleSender(), cmd + Bukkit.getPlayer(player) + " " + message);
+        JChatQueue sendQueue = asyncQueue();
+        if (sendQueue != null) {
+            sendQueue.toPlayer(player, message);
+            return;
+        }
+        sendNow(player, message);
     }
 
     /**
      * Send a JChat Message to a Player
-     * <P>This uses the console and the tellraw command to send the message.
-     * The player will still require the correct permissions to run any click events
-     * <P>This method fairly thread safe as it is synchronized
+     * <P>The player will still require the correct permissions to run any click events
+     * <P>This method is thread safe, off the main thread the message is queued
      *
      * @param player  the {@link org.bukkit.entity.Player} to send the message to
      * @param message the pre made JSON message in {@link java.lang.String} format
      * @throws java.lang.NullPointerException      if the player is not found.
      * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
      */
-    public static synchronized void sendToPlayer(Player player, String message) throws NullPointerException, CommandException {
+    public static void sendToPlayer(Player player, String message) throws NullPointerException, CommandException {
         Validate.notNull(player, "You must pass a valid player name to send the message to");
         Validate.notNull(message, "You must pass a JSON formatted message to send to the user");
-        sendToPlayer(player.getName(), message);
+        deliver(player, message);
     }
 
-}
+    /**
+     * Broadcast a JChat Message to all online players, returning if it was delivered.
+     *
+     * @param message the pre made JSON message in {@link java.lang.String} format
+     * @return true if the message was delivered to at least one player or queued
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    static boolean deliverToAll(String message) throws CommandException {
+
+        JChatQueue sendQueue = asyncQueue();
+        if (sendQueue != null) {
+            sendQueue.toAll(message);
+            return true;
+        }
+        return broadcastAllNow(message) > 0;
+    }
+
+    /**
+     * Send a JChat Message to a Player, returning if it was delivered.
+     *
+     * @param player  the {@link org.bukkit.entity.Player} to send the message to
+     * @param message the pre made JSON message in {@link java.lang.String} format
+     * @return true if the message was delivered or queued
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    static boolean deliver(Player player, String message) throws CommandException {
+
+        JChatQueue sendQueue = asyncQueue();
+        if (sendQueue != null) {
+            sendQueue.toPlayer(player.getUniqueId(), message);
+            return true;
+        }
+        return sendNow(player, message);
+    }
+
+    /**
+     * Send a JChat Message to a Player using their UUID, returning if it was delivered.
+     *
+     * @param player  the players UUID to send the message to
+     * @param message the pre made JSON message in {@link java.lang.String} format
+     * @return true if the message was delivered or queued
+     * @throws java.lang.NullPointerException      if the player is not found
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    static boolean deliver(UUID player, String message) throws NullPointerException, CommandException {
+
+        JChatQueue sendQueue = asyncQueue();
+        if (sendQueue != null) {
+            sendQueue.toPlayer(player, message);
+            return true;
+        }
+        return sendNow(player, message);
+    }
+
+    /**
+     * Finds an online player by UUID.
+     *
+     * @param player the players UUID
+     * @return the {@link JChatPlayerIndex.Entry} for the player or null if they are not online
+     */
+    static JChatPlayerIndex.Entry resolve(UUID player) {
+
+        JChatPlayerIndex index = playerIndex;
+        if (index != null)
+            return index.get(player);
+        Player p = Bukkit.getPlayer(player);
+        return p == null ? null : new JChatPlayerIndex.Entry(p);
+    }
+
+    /**
+     * Sends a message on the current thread to a player found by UUID.
+     *
+     * @param player  the players UUID to send the message to
+     * @param message the pre made JSON message
+     * @return true if the message was delivered, false if not or it was held back by the throttle
+     * @throws java.lang.NullPointerException      if the player is not found
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    static boolean sendNow(UUID player, String message) throws NullPointerException, CommandException {
+
+        JChatPlayerIndex.Entry entry = resolve(player);
+        if (entry == null)
+            throw new NullPointerException("Unable to locate the player with the UUID of " + player + " or they are not on line");
+        return sendNow(entry, message);
+    }
+
+    /**
+     * Sends a message on the current thread to an indexed player, using the cached command prefix with tellraw.
+     *
+     * @param entry   the {@link JChatPlayerIndex.Entry} of the player to send the message to
+     * @param message the pre made JSON message
+     * @return true if the message was delivered, false if not or it was held back by the throttle
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    static boolean sendNow(JChatPlayerIndex.Entry entry, String message) throws CommandException {
+
+        JChatThrottle sendThrottle = throttle;
+        if (sendThrottle != null && !sendThrottle.allow(entry.getPlayer(), message))
+            return false;
+        IChatSender chatSender = sender;
+        if (chatSender instanceof TellrawChatSender)
+            return ((TellrawChatSender) chatSender).send(entry.getCommandPrefix(), message);
+        return chatSender.send(entry.getPlayer(), message);
+    }
+
+    /**
+     * Sends a message on the current thread to a player found by name.
+     * <p>With the tellraw sender the target is passed to the command as it is, so it can be a target selector.
+     *
+     * @param target  the player name, or a target selector with the tellraw sender
+     * @param message the pre made JSON message
+     * @return true if the message was delivered, false if not or it was held back by the throttle
+     * @throws java.lang.NullPointerException      if the sender is not tellraw and the player is not found
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    static boolean sendNow(String target, String message) throws NullPointerException, CommandException {
+
+        IChatSender chatSender = sender;
+        if (chatSender instanceof TellrawChatSender)
+            return ((TellrawChatSender) chatSender).send(TellrawChatSender.commandPrefix(target), message);
+        Player player = Bukkit.getPlayerExact(target);
+        if (player == null)
+            throw new NullPointerException("Unable to locate the player with the string name of " + target + " or they are not on line");
+        return sendNow(chatSender, player, message);
+    }
+
+    /**
+     * Sends a message on the current thread through the throttle and the sender.
+     *
+     * @param player  the {@link org.bukkit.entity.Player} to send the message to
+     * @param message the pre made JSON message
+     * @return true if the message was delivered, false if not or it was held back by the throttle
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    static boolean sendNow(Player player, String message) throws CommandException {
+
+        return sendNow(sender, player, message);
+    }
+
+    private static boolean sendNow(IChatSender chatSender, Player player, String message) throws CommandException {
+
+        JChatThrottle sendThrottle = throttle;
+        if (sendThrottle != null && !sendThrottle.allow(player, message))
+            return false;
+        return chatSender.send(player, message);
+    }
+
+    /**
+     * Broadcasts a message on the current thread through the throttle and the sender.
+     *
+     * @param players the players to send the message to
+     * @param message the pre made JSON message
+     * @return the number of players the message was delivered to
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    static int broadcastNow(Collection<? extends Player> players, String message) throws CommandException {
+
+        return broadcastNow(sender, players, message);
+    }
 
+    /**
+     * Broadcasts a message on the current thread to every online player.
+     * <p>With the tellraw sender and no throttle the message is sent with a single <tt>tellraw @a</tt> command.
+     *
+     * @param message the pre made JSON message
+     * @return the number of players the message was delivered to
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    static int broadcastAllNow(String message) throws CommandException {
+
+        IChatSender chatSender = sender;
+        if (chatSender instanceof TellrawChatSender && throttle == null)
+            return ((TellrawChatSender) chatSender).broadcastAll(Bukkit.getOnlinePlayers(), message);
+        return broadcastNow(chatSender, Bukkit.getOnlinePlayers(), message);
+    }
+
+    private static int broadcastNow(IChatSender chatSender, Collection<? extends Player> players, String message) throws CommandException {
+
+        JChatThrottle sendThrottle = throttle;
+        if (sendThrottle != null)
+            players = sendThrottle.filter(players, message);
+        return chatSender.broadcast(players, message);
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.MissingFormatArgumentException;
+
+/**
+ * A pre compiled {@link org.codemine.jchatter.JChat} message containing placeholders.
+ * <p>The message is built and converted into JSON once, with the JSON split at each <strong>%s</strong> placeholder.
+ * The static parts are kept as already escaped JSON fragments, so rendering only has to escape the values and
+ * join them in. Colors, styles and events are all worked out once when the template is compiled.
+ * <p>Placeholders can be used in the message text, text tooltips and click events. Values are inserted as plain text,
+ * color codes in the values are not parsed. Write <strong>%%</strong> for a literal <strong>%</strong>, so
+ * <strong>%%s</strong> shows as <strong>%s</strong>. Item tooltips hold their title and lore as item data, where a
+ * value could break the data, so placeholders are not allowed in them.
+ * <pre>
+ * {@code
+ *     JChatTemplate welcome = new JChat()
+ *     .coloredText("&a&oHi %s welcome to &6&o%s")
+ *     .tooltip("&aYou have %s coins")
+ *     .toTemplate();
+ *
+ *     JChatSender.sendToPlayer(player, welcome.render(player.getName(), "Factions", "100"));
+ *     }
+ * </pre>
+ * <p>Templates are immutable and can be shared between threads.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public final class JChatTemplate {
+
+    private final String[] fragments;
+    private final int staticLength;
+
+    private JChatTemplate(final String json) throws IllegalArgumentException {
+
+        List<String> parts = new ArrayList<>();
+        StringBuilder fragment = new StringBuilder(json.length());
+        final int length = json.length();
+        for (int i = 0; i < length; i++) {
+            char c = json.charAt(i);
+            if (c == '%' && i + 1 < length) {
+                char next = json.charAt(i + 1);
+                if (next == '%') {
+                    fragment.append('%');
+                    i++;
+                    continue;
+                }
+                if (next == 's') {
+                    if (JChatJson.inItemValue(json, i))
+                        throw new IllegalArgumentException("Placeholders can not be used in item tooltips");
+                    parts.add(fragment.toString());
+                    fragment.setLength(0);
+                    i++;
+                    continue;
+                }
+            }
+            fragment.append(c);
+        }
+        parts.add(fragment.toString());
+        this.fragments = parts.toArray(new String[parts.size()]);
+
+        int total = 0;
+        for (String part : fragments) {
+            total += part.length();
+        }
+        this.staticLength = total;
+    }
+
+    /**
+     * Compiles the {@link org.codemine.jchatter.JChat} message into a template.
+     * <p>Changes made to the message after compiling do not change the template.
+     *
+     * @param message the message containing <strong>%s</strong> placeholders
+     * @return the {@link org.codemine.jchatter.JChatTemplate}
+     * @throws java.lang.IllegalArgumentException if a placeholder is used in an item tooltip
+     */
+    public static JChatTemplate compile(final JChat message) throws IllegalArgumentException {
+
+        Validate.notNull(message, "The message can not be null");
+        return new JChatTemplate(message.toJSONString());
+    }
+
+    /**
+     * Compiles an already built JSON message into a template.
+     *
+     * @param json the JSON message containing <strong>%s</strong> placeholders
+     * @return the {@link org.codemine.jchatter.JChatTemplate}
+     * @throws java.lang.IllegalArgumentException if a placeholder is used in an item tooltip
+     */
+    public static JChatTemplate compile(final String json) throws IllegalArgumentException {
+
+        Validate.notNull(json, "The JSON message can not be null");
+        return new JChatTemplate(json);
+    }
+
+    /**
+     * Gets the number of placeholders in the template.
+     *
+     * @return the number of values {@link #render(String...)} requires
+     */
+    public int getPlaceholders() {
+
+        return fragments.length - 1;
+    }
+
+    /**
+     * Render the template into a JSON message ready to send.
+     *
+     * @param values the values used to replace the placeholders in order. You must pass the exact number of values as there are placeholders.
+     * @return the JSON string representing the complete message
+     * @throws java.util.MissingFormatArgumentException if the number of placeholders and values don't match
+     */
+    public String render(final String... values) throws MissingFormatArgumentException {
+
+        int length = staticLength;
+        for (String value : values) {
+            length += value == null ? 4 : value.length() + 8;
+        }
+        return render(new StringBuilder(length), values).toString();
+    }
+
+    /**
+     * Render the template appending the JSON message to the {@link java.lang.StringBuilder}.
+     *
+     * @param out    the {@link java.lang.StringBuilder} the JSON is appended to
+     * @param values the values used to replace the placeholders in order. You must pass the exact number of values as there are placeholders.
+     * @return the {@link java.lang.StringBuilder} passed in
+     * @throws java.util.MissingFormatArgumentException if the number of placeholders and values don't match
+     */
+    public StringBuilder render(final StringBuilder out, final String... values) throws MissingFormatArgumentException {
+
+        if (values.length != fragments.length - 1)
+            throw new MissingFormatArgumentException("Error: The number of values do not match the number of placeholders");
+
+        out.append(fragments[0]);
+        for (int i = 0; i < values.length; i++) {
+            JChatJson.escape(String.valueOf(values[i]), out);
+            out.append(fragments[i + 1]);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Delivery stage that sits in front of the {@link org.codemine.jchatter.Interfaces.IChatSender} and stops players being
+ * flooded with messages.
+ * <ol>
+ * <li>Coalescing, the same message sent to the same player again within the coalesce window is merged into the
+ * first and not sent again.</li>
+ * <li>Rate limiting, each player is sent at most a set number of messages per period, any more are dropped.</li>
+ * </ol>
+ * <p>Counters of merged and dropped messages are kept so the effect can be monitored. Set the throttle using
+ * {@link JChatSender#setThrottle(JChatThrottle)}, JChatter does this when <tt>throttle.enabled</tt> is true in the config.
+ * <p>The throttle is only used from the main server thread.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatThrottle {
+
+    private final Map<UUID, Recipient> recipients = new HashMap<>();
+    private final long coalesceMillis;
+    private final int rateLimit;
+    private final long ratePeriodMillis;
+
+    private volatile long merged;
+    private volatile long dropped;
+
+    /**
+     * Instantiates a new JChatThrottle
+     *
+     * @param coalesceMillis   identical messages to the same player within this many milliseconds are merged, 0 to disable
+     * @param rateLimit        the maximum messages each player is sent per period, 0 for no limit
+     * @param ratePeriodMillis the length of the rate limit period in milliseconds
+     */
+    public JChatThrottle(final long coalesceMillis, final int rateLimit, final long ratePeriodMillis) {
+
+        Validate.isTrue(coalesceMillis >= 0, "The coalesce window can not be negative");
+        Validate.isTrue(rateLimit >= 0, "The rate limit can not be negative");
+        Validate.isTrue(ratePeriodMillis > 0, "The rate limit period must be greater than 0");
+        this.coalesceMillis = coalesceMillis;
+        this.rateLimit = rateLimit;
+        this.ratePeriodMillis = ratePeriodMillis;
+    }
+
+    /**
+     * Checks if a message may be sent to the player, counting it if it is.
+     *
+     * @param player the player the message is for
+     * @param json   the pre made message in JSON format
+     * @return true if the message should be sent, false if it was merged or dropped
+     */
+    public boolean allow(final Player player, final String json) {
+
+        return allow(player.getUniqueId(), json, System.currentTimeMillis());
+    }
+
+    /**
+     * Filters the players down to those the message may be sent to.
+     *
+     * @param players the players the message is for
+     * @param json    the pre made message in JSON format
+     * @return the players the message should be sent to
+     */
+    public Collection<? extends Player> filter(final Collection<? extends Player> players, final String json) {
+
+        long now = System.currentTimeMillis();
+        List<Player> allowed = new ArrayList<>(players.size());
+        for (Player player : players) {
+            if (allow(player.getUniqueId(), json, now))
+                allowed.add(player);
+        }
+        return allowed;
+    }
+
+    private boolean allow(final UUID uuid, final String json, final long now) {
+
+        Recipient recipient = recipients.get(uuid);
+        if (recipient == null) {
+            recipient = new Recipient();
+            recipients.put(uuid, recipient);
+        }
+
+        if (coalesceMillis > 0 && now - recipient.lastSent < coalesceMillis && json.equals(recipient.lastMessage)) {
+            merged++;
+            return false;
+        }
+
+        if (rateLimit > 0) {
+            if (now - recipient.periodStart >= ratePeriodMillis) {
+                recipient.periodStart = now;
+                recipient.count = 0;
+            }
+            if (recipient.count >= rateLimit) {
+                dropped++;
+                return false;
+            }
+            recipient.count++;
+        }
+
+        recipient.lastMessage = json;
+        recipient.lastSent = now;
+        return true;
+    }
+
+    /**
+     * Removes everything held about a player, called when they leave the server.
+     *
+     * @param uuid the players UUID
+     */
+    public void forget(final UUID uuid) {
+
+        recipients.remove(uuid);
+    }
+
+    /**
+     * Gets the number of messages merged into an identical message sent just before
+     *
+     * @return the number of merged messages
+     */
+    public long getMerged() {
+
+        return merged;
+    }
+
+    /**
+     * Gets the number of messages dropped by the rate limit
+     *
+     * @return the number of dropped messages
+     */
+    public long getDropped() {
+
+        return dropped;
+    }
+
+    private static final class Recipient {
+
+        String lastMessage;
+        long lastSent;
+        long periodStart;
+        int count;
+    }
+}
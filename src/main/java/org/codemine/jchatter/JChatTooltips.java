@@ -0,0 +1,273 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.ChatColor;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of built tooltip payloads shared by every {@link org.codemine.jchatter.JChat}.
+ * <p>Building a tooltip translates the color codes of every line and, for multi line and item tooltips, formats the
+ * item data holding the title and lore. Menus tend to attach the same few tooltips to many messages, so the finished
+ * payload is cached keyed by the tooltip's lines and the same tooltip is only built once.
+ * <p>The cache holds at most the configured number of tooltips, removing the least recently used, and the payloads are
+ * only softly referenced so the garbage collector can reclaim them when memory runs low.
+ * <p>All methods are thread safe.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public final class JChatTooltips {
+
+    private static final int DEFAULT_MAX_SIZE = 512;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static volatile int maxSize = DEFAULT_MAX_SIZE;
+
+    private static final LinkedHashMap<Key, SoftReference<String>> cache = new LinkedHashMap<Key, SoftReference<String>>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, SoftReference<String>> eldest) {
+
+            return size() > maxSize;
+        }
+    };
+
+    private JChatTooltips() {
+
+    }
+
+    /**
+     * Gets the payload of a single line text tooltip, with its color codes translated.
+     *
+     * @param line the tooltip text using '&amp;' color codes
+     * @return the tooltip text
+     */
+    static String text(final String line) {
+
+        Key key = new Key(false, line);
+        String payload = get(key);
+        if (payload == null) {
+            payload = ChatColor.translateAlternateColorCodes('&', line);
+            put(key, payload);
+        }
+        return payload;
+    }
+
+    /**
+     * Gets the item data payload of an item or multi line tooltip.
+     *
+     * @param title the item display title
+     * @param lore  the lore lines
+     * @return the item data
+     */
+    static String item(final String title, final List<String> lore) {
+
+        String[] values = new String[lore.size() + 1];
+        values[0] = title;
+        for (int i = 0; i < lore.size(); i++) {
+            values[i + 1] = lore.get(i);
+        }
+        Key key = new Key(true, values);
+        String payload = get(key);
+        if (payload == null) {
+            payload = makeItemJSON(title, lore);
+            put(key, payload);
+        }
+        return payload;
+    }
+
+    private static String get(final Key key) {
+
+        SoftReference<String> reference;
+        synchronized (cache) {
+            reference = cache.get(key);
+        }
+        String payload = reference == null ? null : reference.get();
+        if (payload == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return payload;
+    }
+
+    private static void put(final Key key, final String payload) {
+
+        synchronized (cache) {
+            cache.put(key, new SoftReference<>(payload));
+        }
+    }
+
+    /**
+     * Creates not a JSON string as the name would suggest but a string formatted partly in Json but also item NBT data.
+     * This information ws gain directly off the Minecraft Wiki.
+     *
+     * @param title is the Item Display Title
+     * @param lore  of Type List<String> an as you normally would using ItemMeta.
+     * @return string representing either the itemTooltip or a multi line tooltip.
+     */
+    private static String makeItemJSON(final String title, final List<String> lore) {
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lore.size(); i++) {
+            sb.append(i)
+                    .append(':')
+                    .append("\"");
+            if (lore.get(i).isEmpty())
+                sb.append(" ");
+            else
+                sb.append(ChatColor.translateAlternateColorCodes('&', lore.get(i)));
+            sb.append("\",");
+        }
+        return String.format("{id:1s,Count:1b,tag:" +
+                "{display:" +
+                "{Lore:" +
+                "[%s]" +
+                ",Name:\"%s\",}" +
+                ",}" +
+                ",Damage:0s,}", sb.toString(), ChatColor.translateAlternateColorCodes('&', title));
+    }
+
+    /**
+     * Gets the number of tooltips that were found in the cache.
+     *
+     * @return the number of cache hits
+     */
+    public static long getHits() {
+
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of tooltips that had to be built.
+     *
+     * @return the number of cache misses
+     */
+    public static long getMisses() {
+
+        return misses.get();
+    }
+
+    /**
+     * Gets the fraction of tooltips that were found in the cache.
+     *
+     * @return the hit rate between 0 and 1, 0 if no tooltips have been used
+     */
+    public static double getHitRate() {
+
+        long found = hits.get();
+        long total = found + misses.get();
+        return total == 0 ? 0 : (double) found / total;
+    }
+
+    /**
+     * Gets the number of tooltips currently cached, including any whose payload has been reclaimed.
+     *
+     * @return the number of cached tooltips
+     */
+    public static int size() {
+
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Gets the maximum number of tooltips cached.
+     *
+     * @return the maximum size
+     */
+    public static int getMaxSize() {
+
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum number of tooltips cached, the least recently used are removed first.
+     *
+     * @param size the maximum size, 0 disables the cache
+     */
+    public static void setMaxSize(final int size) {
+
+        Validate.isTrue(size >= 0, "The tooltip cache max size can not be negative");
+        synchronized (cache) {
+            maxSize = size;
+            if (cache.size() > size) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Removes every cached tooltip and resets the hit and miss counts.
+     */
+    public static void clear() {
+
+        synchronized (cache) {
+            cache.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+
+    private static final class Key {
+
+        private final boolean item;
+        private final String[] values;
+        private final int hash;
+
+        Key(final boolean item, final String... values) {
+
+            this.item = item;
+            this.values = values;
+            this.hash = 31 * Arrays.hashCode(values) + (item ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return item == key.item && hash == key.hash && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return hash;
+        }
+    }
+}
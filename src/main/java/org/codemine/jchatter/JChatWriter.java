@@ -0,0 +1,272 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes JChat messages as JSON into a reusable char buffer.
+ * <p>Each thread has its own writer so rendering a message does not create a new writer and buffer every time. Strings
+ * are escaped with the same rules as Gson's {@link com.google.gson.stream.JsonWriter}, runs of characters that need no
+ * escaping are copied in bulk. The finished JSON can be turned into a String or written straight to an
+ * {@link java.lang.Appendable} or a {@link java.nio.ByteBuffer} as UTF-8. This is for internal use only.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+final class JChatWriter {
+
+    private static final int INITIAL_SIZE = 512;
+    // Buffers that grow past this are not kept for the next message
+    private static final int MAX_RETAINED_SIZE = 1 << 16;
+
+    private static final ThreadLocal<JChatWriter> LOCAL = new ThreadLocal<JChatWriter>() {
+        @Override
+        protected JChatWriter initialValue() {
+
+            return new JChatWriter();
+        }
+    };
+
+    private char[] buf = new char[INITIAL_SIZE];
+    private int len;
+
+    private JChatWriter() {
+
+    }
+
+    /**
+     * Gets the writer for the current thread, emptied ready to use.
+     *
+     * @return the {@link JChatWriter}
+     */
+    static JChatWriter get() {
+
+        JChatWriter writer = LOCAL.get();
+        if (writer.buf.length > MAX_RETAINED_SIZE)
+            writer.buf = new char[INITIAL_SIZE];
+        writer.len = 0;
+        return writer;
+    }
+
+    private void ensure(final int extra) {
+
+        if (len + extra > buf.length) {
+            char[] grown = new char[Math.max(buf.length << 1, len + extra)];
+            System.arraycopy(buf, 0, grown, 0, len);
+            buf = grown;
+        }
+    }
+
+    /**
+     * Appends a single character as is.
+     *
+     * @param c the character
+     * @return the {@link JChatWriter}
+     */
+    JChatWriter raw(final char c) {
+
+        ensure(1);
+        buf[len++] = c;
+        return this;
+    }
+
+    /**
+     * Appends already formatted JSON as is.
+     *
+     * @param json the JSON
+     * @return the {@link JChatWriter}
+     */
+    JChatWriter raw(final String json) {
+
+        final int length = json.length();
+        ensure(length);
+        json.getChars(0, length, buf, len);
+        len += length;
+        return this;
+    }
+
+    /**
+     * Appends a JSON string value including the quotes, or null if the value is null.
+     *
+     * @param value the value
+     * @return the {@link JChatWriter}
+     */
+    JChatWriter string(final String value) {
+
+        if (value == null)
+            return raw("null");
+
+        final int length = value.length();
+        ensure(length + 2);
+        buf[len++] = '"';
+        int last = 0;
+        for (int i = 0; i < length; i++) {
+            String replacement = JChatJson.replacement(value.charAt(i));
+            if (replacement == null)
+                continue;
+            if (last < i) {
+                ensure(i - last);
+                value.getChars(last, i, buf, len);
+                len += i - last;
+            }
+            raw(replacement);
+            last = i + 1;
+        }
+        if (last < length) {
+            ensure(length - last + 1);
+            value.getChars(last, length, buf, len);
+            len += length - last;
+        }
+        return raw('"');
+    }
+
+    /**
+     * Gets the number of characters written
+     *
+     * @return the length of the JSON
+     */
+    int length() {
+
+        return len;
+    }
+
+    /**
+     * Gets the JSON written since a position.
+     *
+     * @param start the position, as returned by {@link #length()}
+     * @return the JSON from the position to the end
+     */
+    String substring(final int start) {
+
+        return new String(buf, start, len - start);
+    }
+
+    @Override
+    public String toString() {
+
+        return new String(buf, 0, len);
+    }
+
+    /**
+     * Writes the JSON to an {@link java.lang.Appendable}, avoiding an intermediate String where possible.
+     *
+     * @param out the {@link java.lang.Appendable}
+     * @throws java.io.IOException if the {@link java.lang.Appendable} throws it
+     */
+    void writeTo(final Appendable out) throws IOException {
+
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(buf, 0, len);
+        } else if (out instanceof Writer) {
+            ((Writer) out).write(buf, 0, len);
+        } else {
+            out.append(java.nio.CharBuffer.wrap(buf, 0, len));
+        }
+    }
+
+    /**
+     * Writes the JSON to a {@link java.nio.ByteBuffer} encoded as UTF-8.
+     *
+     * @param out the {@link java.nio.ByteBuffer}
+     * @throws java.nio.BufferOverflowException if there is not enough space remaining, nothing is written
+     */
+    void writeTo(final ByteBuffer out) throws BufferOverflowException {
+
+        encode(buf, 0, len, out);
+    }
+
+    /**
+     * Encodes characters into a {@link java.nio.ByteBuffer} as UTF-8.
+     *
+     * @param chars  the characters
+     * @param offset the first character
+     * @param length the number of characters
+     * @param out    the {@link java.nio.ByteBuffer}
+     * @throws java.nio.BufferOverflowException if there is not enough space remaining, nothing is written
+     */
+    static void encode(final char[] chars, final int offset, final int length, final ByteBuffer out) throws BufferOverflowException {
+
+        if (out.remaining() < encodedLength(chars, offset, length))
+            throw new BufferOverflowException();
+
+        final int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            char c = chars[i];
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+                int cp = Character.toCodePoint(c, chars[++i]);
+                out.put((byte) (0xF0 | (cp >> 18)));
+                out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                //Unpaired surrogates are replaced the same way String.getBytes does
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Gets the number of bytes the characters take up encoded as UTF-8.
+     *
+     * @param chars  the characters
+     * @param offset the first character
+     * @param length the number of characters
+     * @return the number of bytes
+     */
+    static int encodedLength(final char[] chars, final int offset, final int length) {
+
+        final int end = offset + length;
+        int bytes = length;
+        for (int i = offset; i < end; i++) {
+            char c = chars[i];
+            if (c < 0x80)
+                continue;
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+}
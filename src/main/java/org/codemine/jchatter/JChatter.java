@@ -26,9 +26,13 @@
 
 package org.codemine.jchatter;
 
+import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
+
 /**
  * The Main JavaPlugin Class, main purpose is to allow multiple plugins to all use this
  * from a single instance, without having to shard it and risk naming conflicts.
@@ -41,12 +45,69 @@ import org.bukkit.plugin.java.JavaPlugin;
  */
 public class JChatter extends JavaPlugin {
 
+    private static JChatRegistry registry;
+
+    private static JChatAudiences audiences;
+
+    private static JChatPlaceholders placeholders;
+
+    private static JChatBus bus;
+
+    private JChatQueue queue;
+
     @Override
     public void onEnable() {
 
         getLogger().info("JChatter was written by Relicum but includes work by dorkrepublic Spoonyloony bobacadodl");
         getLogger().info("More details can be found here https://github.com/Relicum/jchatter");
 
+        saveDefaultConfig();
+
+        String senderType = getConfig().getString("sender", "auto");
+        if (senderType.equalsIgnoreCase("tellraw")) {
+            JChatSender.setSender(new TellrawChatSender());
+        } else if (senderType.equalsIgnoreCase("spigot") && !SpigotChatSender.isSupported()) {
+            getLogger().warning("The Spigot chat API is not available on this server, falling back to tellraw");
+            JChatSender.setSender(new TellrawChatSender());
+        } else {
+            JChatSender.setSender(JChatSender.defaultSender());
+        }
+        getLogger().info("Sending messages using " + JChatSender.getSender().getName());
+
+        queue = new JChatQueue(getConfig().getLong("queue.budget-micros", 2000L), getLogger());
+        getServer().getScheduler().runTaskTimer(this, queue, 1L, 1L);
+        JChatSender.setQueue(queue);
+
+        if (getConfig().getBoolean("throttle.enabled", false)) {
+            JChatSender.setThrottle(new JChatThrottle(
+                    getConfig().getLong("throttle.coalesce-millis", 1000L),
+                    getConfig().getInt("throttle.rate-limit", 0),
+                    getConfig().getLong("throttle.rate-period-millis", 1000L)));
+        }
+        JChatTooltips.setMaxSize(getConfig().getInt("tooltips.max-size", 512));
+        JChatRenderCache.setMaxSize(getConfig().getInt("render-cache.max-size", 0));
+
+        audiences = new JChatAudiences();
+        JChatPlayerIndex playerIndex = new JChatPlayerIndex();
+        for (Player player : getServer().getOnlinePlayers()) {
+            playerIndex.add(player);
+            audiences.join(player);
+        }
+        JChatSender.setPlayerIndex(playerIndex);
+        placeholders = new JChatPlaceholders();
+        getServer().getPluginManager().registerEvents(new JChatListener(audiences, playerIndex, placeholders), this);
+
+        bus = new JChatBus(new JChatLoopbackTransport(), getConfig().getInt("bus.flush-ticks", 2), getLogger());
+        getServer().getScheduler().runTaskTimer(this, bus, 1L, 1L);
+        getLogger().info("Broadcast bus using the " + bus.getTransport().getName() + " transport");
+
+        registry = new JChatRegistry(new File(getDataFolder(), "messages.dat"), getConfig().getInt("registry.max-size", 1000));
+        try {
+            getLogger().info("Loaded " + registry.load() + " saved messages");
+        } catch (IOException e) {
+            getLogger().warning("Unable to load the saved messages: " + e.getMessage());
+        }
+
 /*        jChat = new JChat();
 
         jChat
@@ -66,6 +127,31 @@ public class JChatter extends JavaPlugin {
     @Override
     public void onDisable() {
 
+        if (bus != null) {
+            bus.shutdown();
+            bus = null;
+        }
+        if (queue != null) {
+            JChatSender.setQueue(null);
+            queue.flush();
+            queue = null;
+        }
+        JChatSender.setThrottle(null);
+        JChatSender.setPlayerIndex(null);
+        audiences = null;
+        placeholders = null;
+        JChatTooltips.clear();
+        JChatRenderCache.setMaxSize(0);
+        JChatRenderCache.clear();
+
+        if (registry != null) {
+            try {
+                registry.save();
+            } catch (IOException e) {
+                getLogger().warning("Unable to save the registered messages: " + e.getMessage());
+            }
+            registry = null;
+        }
     }
 
 
@@ -100,5 +186,62 @@ public class JChatter extends JavaPlugin {
         return new JChat(firstPartText);
     }
 
+    /**
+     * Gets the indexes of online players used to target messages at a world, permission or group.
+     *
+     * @return the {@link org.codemine.jchatter.JChatAudiences}
+     * @throws java.lang.IllegalStateException if JChatter is not enabled
+     * @see org.codemine.jchatter.Audience
+     */
+    public static JChatAudiences getAudiences() throws IllegalStateException {
+
+        if (audiences == null) {
+            throw new IllegalStateException("JChatter is not enabled");
+        }
+        return audiences;
+    }
+
+    /**
+     * Gets the named placeholders that are filled in for each player when a message is sent.
+     *
+     * @return the {@link org.codemine.jchatter.JChatPlaceholders}
+     * @throws java.lang.IllegalStateException if JChatter is not enabled
+     */
+    public static JChatPlaceholders getPlaceholders() throws IllegalStateException {
+
+        if (placeholders == null) {
+            throw new IllegalStateException("JChatter is not enabled");
+        }
+        return placeholders;
+    }
+
+    /**
+     * Gets the bus used to broadcast messages to every server on the network.
+     *
+     * @return the {@link org.codemine.jchatter.JChatBus}
+     * @throws java.lang.IllegalStateException if JChatter is not enabled
+     */
+    public static JChatBus getBus() throws IllegalStateException {
+
+        if (bus == null) {
+            throw new IllegalStateException("JChatter is not enabled");
+        }
+        return bus;
+    }
+
+    /**
+     * Gets the shared message registry, used to store messages that are sent often so they only need to be built once.
+     *
+     * @return the {@link org.codemine.jchatter.JChatRegistry}
+     * @throws java.lang.IllegalStateException if JChatter is not enabled
+     */
+    public static JChatRegistry getRegistry() throws IllegalStateException {
+
+        if (registry == null) {
+            throw new IllegalStateException("JChatter is not enabled");
+        }
+        return registry;
+    }
+
 
 }
@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
+import org.bukkit.command.CommandException;
+import org.bukkit.entity.Player;
+import org.codemine.jchatter.Interfaces.IChatSender;
+
+import java.util.Collection;
+
+/**
+ * Sends messages straight to the player using the Spigot chat API.
+ * <p>The JSON is turned into chat components and handed to {@link org.bukkit.entity.Player.Spigot#sendMessage(BaseComponent...)},
+ * skipping the command lookup and player selector parsing that tellraw requires. Still no reflection or NMS code is used.
+ * This is the default sender when running on Spigot.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class SpigotChatSender implements IChatSender {
+
+    /**
+     * Checks if the Spigot chat API is available on this server.
+     *
+     * @return true if the server supports sending chat components
+     */
+    public static boolean isSupported() {
+
+        try {
+            Class.forName("net.md_5.bungee.chat.ComponentSerializer");
+            Player.Spigot.class.getMethod("sendMessage", BaseComponent[].class);
+            return true;
+        } catch (ClassNotFoundException | NoSuchMethodException | NoClassDefFoundError e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String getName() {
+
+        return "spigot";
+    }
+
+    @Override
+    public boolean send(Player player, String json) throws CommandException {
+
+        player.spigot().sendMessage(parse(json));
+        return true;
+    }
+
+    /**
+     * Parses the JSON once and sends the same components to every player.
+     *
+     * @param players the players to send the message to
+     * @param json    the pre made message in JSON format
+     * @return the number of players the message was delivered to
+     * @throws org.bukkit.command.CommandException if the JSON is not valid
+     */
+    @Override
+    public int broadcast(Collection<? extends Player> players, String json) throws CommandException {
+
+        if (players.isEmpty())
+            return 0;
+        BaseComponent[] components = parse(json);
+        int delivered = 0;
+        for (Player player : players) {
+            player.spigot().sendMessage(components);
+            delivered++;
+        }
+        return delivered;
+    }
+
+    private static BaseComponent[] parse(String json) throws CommandException {
+
+        try {
+            return ComponentSerializer.parse(json);
+        } catch (RuntimeException e) {
+            throw new CommandException("Invalid JSON message " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandException;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.codemine.jchatter.Interfaces.IChatSender;
+
+import java.util.Collection;
+
+/**
+ * The original JChatter sender, sends messages using the console and the tellraw command.
+ * <p>This works on any Bukkit server but the server has to look up the command and parse the JSON for every message sent.
+ * It is used when the Spigot chat API is not available.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class TellrawChatSender implements IChatSender {
+
+    private static final String cmd = "tellraw ";
+
+    @Override
+    public String getName() {
+
+        return "tellraw";
+    }
+
+    /**
+     * Gets the start of the tellraw command for a player, the JSON message just needs adding to the end.
+     *
+     * @param player the player the command is for
+     * @return the command prefix
+     */
+    static String commandPrefix(Player player) {
+
+        return commandPrefix(player.getName());
+    }
+
+    /**
+     * Gets the start of the tellraw command for a target, the JSON message just needs adding to the end.
+     *
+     * @param target the player name or a target selector such as <tt>@a</tt>
+     * @return the command prefix
+     */
+    static String commandPrefix(String target) {
+
+        return cmd + target + " ";
+    }
+
+    @Override
+    public boolean send(Player player, String json) throws CommandException {
+
+        return Bukkit.dispatchCommand(Bukkit.getConsoleSender(), commandPrefix(player) + json);
+    }
+
+    /**
+     * Send a JSON message using a command prefix that has already been built.
+     *
+     * @param commandPrefix the command prefix from {@link #commandPrefix(org.bukkit.entity.Player)}
+     * @param json          the pre made message in JSON format
+     * @return true if the message was delivered, false if not
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    boolean send(String commandPrefix, String json) throws CommandException {
+
+        return Bukkit.dispatchCommand(Bukkit.getConsoleSender(), commandPrefix.concat(json));
+    }
+
+    /**
+     * Sends the message to each player with its own tellraw command, used when the message goes to a chosen group of
+     * players. The command is built in a single reused buffer, the server still has to parse the JSON for every player.
+     * A message for every online player is sent with a single command by {@link #broadcastAll(java.util.Collection, String)}.
+     *
+     * @param players the players to send the message to
+     * @param json    the pre made message in JSON format
+     * @return the number of players the message was delivered to
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    @Override
+    public int broadcast(Collection<? extends Player> players, String json) throws CommandException {
+
+        CommandSender console = Bukkit.getConsoleSender();
+        StringBuilder command = new StringBuilder(cmd.length() + 17 + json.length());
+        int delivered = 0;
+        for (Player player : players) {
+            command.setLength(0);
+            command.append(cmd).append(player.getName()).append(' ').append(json);
+            if (Bukkit.dispatchCommand(console, command.toString()))
+                delivered++;
+        }
+        return delivered;
+    }
+
+    /**
+     * Sends the message to every online player with a single <tt>tellraw @a</tt> command, so the server only parses
+     * the JSON once.
+     *
+     * @param online the players currently online
+     * @param json   the pre made message in JSON format
+     * @return the number of players the message was delivered to
+     * @throws org.bukkit.command.CommandException if there was a problem dispatching the command
+     */
+    int broadcastAll(Collection<? extends Player> online, String json) throws CommandException {
+
+        if (online.isEmpty())
+            return 0;
+        return Bukkit.dispatchCommand(Bukkit.getConsoleSender(), commandPrefix("@a").concat(json)) ? online.size() : 0;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.bukkit.ChatColor;
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks {@link org.codemine.jchatter.JChatCodec} round trips messages and rejects truncated or corrupt data with an
+ * {@link java.lang.IllegalArgumentException}.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatCodecTest {
+
+    private static JChat message() {
+
+        return new JChat().coloredText("&a&lWelcome &bto the server")
+                .then(" Click here").color(ChatColor.GOLD).style(ChatColor.UNDERLINE).command("/spawn")
+                .tooltip("Teleport to spawn", "Free")
+                .then(" or visit").link("http://example.com").tooltip("Teleport to spawn", "Free")
+                .then(" é中😀");
+    }
+
+    @Test
+    public void testRoundTrip() {
+
+        JChat message = message();
+        byte[] bytes = JChatCodec.encode(message);
+        assertEquals(bytes.length, JChatCodec.getEncodedLength(message));
+        assertEquals(message.toJSONString(), JChatCodec.decode(bytes).toJSONString());
+
+        JChat empty = new JChat();
+        assertEquals(empty.toJSONString(), JChatCodec.decode(JChatCodec.encode(empty)).toJSONString());
+    }
+
+    @Test
+    public void testBuffer() {
+
+        JChat message = message();
+        int length = JChatCodec.getEncodedLength(message);
+        ByteBuffer small = ByteBuffer.allocate(length - 1);
+        try {
+            JChatCodec.writeTo(message, small);
+            fail("Expected the buffer to overflow");
+        } catch (BufferOverflowException e) {
+            assertEquals(0, small.position());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length * 2);
+        JChatCodec.writeTo(message, buffer);
+        JChatCodec.writeTo(message, buffer);
+        buffer.flip();
+        assertEquals(message.toJSONString(), JChatCodec.readFrom(buffer).toJSONString());
+        assertEquals(message.toJSONString(), JChatCodec.readFrom(buffer).toJSONString());
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void testTruncated() {
+
+        byte[] bytes = JChatCodec.encode(message());
+        for (int length = 0; length < bytes.length; length++) {
+            assertRejected(Arrays.copyOf(bytes, length));
+        }
+    }
+
+    @Test
+    public void testCorrupt() {
+
+        byte[] bytes = JChatCodec.encode(message());
+
+        byte[] magic = bytes.clone();
+        magic[0] = 'X';
+        assertRejected(magic);
+
+        byte[] version = bytes.clone();
+        version[2] = (byte) (JChatCodec.VERSION + 1);
+        assertRejected(version);
+
+        // A string count far larger than the data
+        assertRejected(new byte[]{'J', 'C', JChatCodec.VERSION, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+        // A part count far larger than the data
+        assertRejected(new byte[]{'J', 'C', JChatCodec.VERSION, 0, (byte) 0xFF, (byte) 0xFF, 0x7F});
+        // A varint that never ends
+        assertRejected(new byte[]{'J', 'C', JChatCodec.VERSION, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0});
+    }
+
+    @Test
+    public void testRandomCorruption() {
+
+        byte[] bytes = JChatCodec.encode(message());
+        Random random = new Random(3L);
+        for (int i = 0; i < 20000; i++) {
+            byte[] corrupt = bytes.clone();
+            int changes = 1 + random.nextInt(4);
+            for (int c = 0; c < changes; c++) {
+                corrupt[random.nextInt(corrupt.length)] = (byte) random.nextInt(256);
+            }
+            try {
+                JChatCodec.decode(corrupt).toJSONString();
+            } catch (IllegalArgumentException ignored) {
+                //Rejected as expected, anything else fails the test
+            }
+        }
+    }
+
+    private static void assertRejected(final byte[] bytes) {
+
+        try {
+            JChatCodec.decode(bytes);
+            fail("Expected " + Arrays.toString(bytes) + " to be rejected");
+        } catch (IllegalArgumentException ignored) {
+            //Expected
+        }
+    }
+}
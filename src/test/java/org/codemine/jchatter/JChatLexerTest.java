@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.bukkit.ChatColor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link org.codemine.jchatter.JChatLexer} splits colored text the same way the regular expression it replaced
+ * did.
+ * <p>The lexer only treats &amp; as the start of a code and gives styles as a bit mask, so the inputs never hold the
+ * stray characters the old pattern also matched and styles are compared as masks.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatLexerTest {
+
+    private static final Pattern OLD_PATTERN = Pattern.compile("((?<full>((?<col>([&{1}][a-fklmnor0-9{1}]))?(?<stl>([&{1}])[a-fklmnor0-9{1}]){1,})))");
+
+    private static final String ALPHABET = "&&&&abcdfklmnorxAK09 !";
+
+    @Test
+    public void testKnownText() {
+
+        assertSame("&aWelcome");
+        assertSame("&a&lWelcome &bto &c&o&nthe server");
+        assertSame("&l&aBold green");
+        assertSame("&a&a&bLast color wins");
+        assertSame("&aText with &x stray & signs &");
+        assertSame("&aMixed &AUpper &Kcase codes");
+        assertSame("&r&aReset");
+        assertSame("Leading &atext &bdropped");
+        assertSame("No codes & here");
+    }
+
+    @Test
+    public void testRandomText() {
+
+        Random random = new Random(42L);
+        for (int i = 0; i < 50000; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(16);
+            for (int c = 0; c < length; c++) {
+                text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            assertSame(text.toString());
+        }
+    }
+
+    @Test
+    public void testTrailingCodes() {
+
+        assertTrue(JChatLexer.lex("&aText&b").endsWithCodes());
+        assertTrue(JChatLexer.lex("&aText&b&l").endsWithCodes());
+        assertFalse(JChatLexer.lex("&aText&").endsWithCodes());
+    }
+
+    private static void assertSame(final String text) {
+
+        List<int[]> expected;
+        List<String> expectedText = new ArrayList<>();
+        String error;
+        try {
+            expected = oldRuns(text, expectedText);
+            error = null;
+        } catch (IllegalArgumentException e) {
+            expected = null;
+            error = e.getMessage();
+        }
+
+        JChatLexer lexer = JChatLexer.lex(text);
+        if (lexer.endsWithCodes()) {
+            assertEquals(text, "trailing", error);
+            return;
+        }
+        if (lexer.count() == 1 && lexer.start(0) != 0) {
+            assertEquals(text, "start", error);
+            return;
+        }
+        assertEquals(text, null, error);
+        assertEquals(text, expected.size(), lexer.count());
+        for (int run = 0; run < lexer.count(); run++) {
+            assertEquals(text, expectedText.get(run), lexer.text(run));
+            assertEquals(text, expected.get(run)[0], lexer.color(run).ordinal());
+            assertEquals(text, expected.get(run)[1], lexer.styles(run));
+        }
+    }
+
+    /**
+     * The algorithm {@link org.codemine.jchatter.JChat#coloredText(String)} used before the lexer.
+     */
+    private static List<int[]> oldRuns(final String text, final List<String> runText) {
+
+        int max = text.length();
+        Matcher matcher = OLD_PATTERN.matcher(text);
+        int regions = 0;
+        while (matcher.find()) {
+            if (matcher.end() == max)
+                throw new IllegalArgumentException("trailing");
+            regions++;
+        }
+
+        List<int[]> runs = new ArrayList<>();
+        matcher.reset();
+        while (matcher.find()) {
+            String message;
+            if (regions == 1) {
+                if (matcher.start() != 0)
+                    throw new IllegalArgumentException("start");
+                message = strip(text);
+            } else {
+                String remaining = text.substring(matcher.end());
+                Matcher next = OLD_PATTERN.matcher(remaining);
+                message = strip(next.find() ? remaining.substring(0, next.start()) : remaining);
+            }
+
+            ChatColor color = ChatColor.WHITE;
+            int styles = 0;
+            for (char code : matcher.group().replace("&", "").toCharArray()) {
+                ChatColor chatColor = ChatColor.getByChar(code);
+                if (chatColor.isColor())
+                    color = chatColor;
+                else if (chatColor.isFormat())
+                    styles |= JChatLexer.styleBit(chatColor);
+            }
+            runText.add(message);
+            runs.add(new int[]{color.ordinal(), styles});
+        }
+        return runs;
+    }
+
+    private static String strip(final String text) {
+
+        return ChatColor.stripColor(ChatColor.translateAlternateColorCodes('&', text));
+    }
+}
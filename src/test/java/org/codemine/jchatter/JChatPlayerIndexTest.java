@@ -0,0 +1,173 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.bukkit.entity.Player;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks {@link org.codemine.jchatter.JChatPlayerIndex} still finds every player after others are removed from the
+ * middle of a collision chain and added again.
+ * <p>UUIDs whose two halves give the same exclusive or all hash to the same slot, which builds the chain.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatPlayerIndexTest {
+
+    private static final long CHAIN_HASH = 0x5a5a5a5a5a5a5a5aL;
+
+    @Test
+    public void testRemoveFromCollisionChain() {
+
+        JChatPlayerIndex index = new JChatPlayerIndex();
+        List<Player> chain = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            chain.add(player(new UUID(i, i ^ CHAIN_HASH), "Chain" + i));
+        }
+        List<Player> others = new ArrayList<>();
+        Random random = new Random(7L);
+        for (int i = 0; i < 20; i++) {
+            others.add(player(new UUID(random.nextLong(), random.nextLong()), "Other" + i));
+        }
+        for (int i = 0; i < 8; i++) {
+            index.add(chain.get(i));
+            if (i < others.size())
+                index.add(others.get(i));
+        }
+        for (int i = 8; i < others.size(); i++) {
+            index.add(others.get(i));
+        }
+        assertEquals(28, index.size());
+
+        for (int remove = 0; remove < chain.size(); remove++) {
+            Player removed = chain.get(remove);
+            index.remove(removed.getUniqueId());
+            assertEquals(27, index.size());
+            assertNull(index.get(removed.getUniqueId()));
+            assertAllFound(index, chain, others, removed);
+
+            index.add(removed);
+            assertEquals(28, index.size());
+            assertAllFound(index, chain, others, null);
+        }
+
+        for (Player player : chain) {
+            index.remove(player.getUniqueId());
+        }
+        assertEquals(20, index.size());
+        for (Player player : chain) {
+            assertNull(index.getPlayer(player.getUniqueId()));
+        }
+        for (Player player : others) {
+            assertSame(player, index.getPlayer(player.getUniqueId()));
+        }
+    }
+
+    @Test
+    public void testMatchesMap() {
+
+        JChatPlayerIndex index = new JChatPlayerIndex();
+        Map<UUID, Player> expected = new HashMap<>();
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            UUID uuid = i % 2 == 0 ? new UUID(i, i ^ CHAIN_HASH) : new UUID(i * 31L, i * 17L);
+            players.add(player(uuid, "Player" + i));
+        }
+
+        Random random = new Random(11L);
+        for (int step = 0; step < 20000; step++) {
+            Player player = players.get(random.nextInt(players.size()));
+            if (random.nextBoolean()) {
+                index.add(player);
+                expected.put(player.getUniqueId(), player);
+            } else {
+                index.remove(player.getUniqueId());
+                expected.remove(player.getUniqueId());
+            }
+            assertEquals(expected.size(), index.size());
+        }
+        for (Player player : players) {
+            assertSame(expected.get(player.getUniqueId()), index.getPlayer(player.getUniqueId()));
+        }
+    }
+
+    @Test
+    public void testEntryPrefix() {
+
+        JChatPlayerIndex index = new JChatPlayerIndex();
+        Player player = player(UUID.randomUUID(), "Relicum");
+        index.add(player);
+        assertEquals(TellrawChatSender.commandPrefix("Relicum"), index.get(player.getUniqueId()).getCommandPrefix());
+        index.clear();
+        assertEquals(0, index.size());
+        assertNull(index.get(player.getUniqueId()));
+    }
+
+    private static void assertAllFound(JChatPlayerIndex index, List<Player> chain, List<Player> others, Player missing) {
+
+        for (Player player : chain) {
+            if (player != missing)
+                assertSame(player, index.getPlayer(player.getUniqueId()));
+        }
+        for (Player player : others) {
+            assertSame(player, index.getPlayer(player.getUniqueId()));
+        }
+    }
+
+    private static Player player(final UUID uuid, final String name) {
+
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getUniqueId":
+                    return uuid;
+                case "getName":
+                    return name;
+                case "toString":
+                    return name;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
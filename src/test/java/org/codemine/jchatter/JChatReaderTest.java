@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2014 Relicum
+ *
+ * The following authors supplied code that this Lib is based on @Spoonyloony @bobacadodl @dorkrepublic
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.codemine.jchatter;
+
+import org.bukkit.ChatColor;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks JSON messages read back by {@link org.codemine.jchatter.JChatReader} round trip, and that truncated, malformed
+ * or unsupported JSON is rejected rather than read into a partial message.
+ *
+ * @author Relicum
+ * @version 0.0.1
+ */
+public class JChatReaderTest {
+
+    private static JChat message() {
+
+        return new JChat().coloredText("&a&lWelcome &bto \"the\" server\\")
+                .then(" Click here").color(ChatColor.GOLD).style(ChatColor.UNDERLINE, ChatColor.ITALIC).command("/spawn")
+                .tooltip("Teleport to spawn", "Free")
+                .then(" or visit").link("http://example.com")
+                .then(" é中😀\n");
+    }
+
+    @Test
+    public void testRoundTrip() {
+
+        String json = message().toJSONString();
+        assertEquals(json, JChat.fromJSON(json).toJSONString());
+
+        String plain = new JChat().text("Hello").toJSONString();
+        assertEquals(plain, JChat.fromJSON(plain).toJSONString());
+    }
+
+    @Test
+    public void testTruncated() {
+
+        String json = message().toJSONString();
+        for (int length = 0; length < json.length(); length++) {
+            assertRejected(json.substring(0, length));
+        }
+    }
+
+    @Test
+    public void testMalformed() {
+
+        assertRejected("{\"text\":\"Hello\",\"color\":\"not_a_color\"}");
+        assertRejected("{\"text\":\"Hello\",\"bold\":{}}");
+        assertRejected("{\"text\":\"Hello\",\"clickEvent\":{\"action\":\"explode\",\"value\":\"now\"}}");
+        assertRejected("{\"text\":\"Hello\"}}");
+        assertRejected("{\"text\":\"Hello\",\"extra\":{\"text\":\"World\"}}");
+    }
+
+    @Test
+    public void testUnsupportedComponents() {
+
+        assertUnsupported("{\"translate\":\"chat.type.text\",\"with\":[\"Relicum\",\"Hello\"]}");
+        assertUnsupported("{\"score\":{\"name\":\"Relicum\",\"objective\":\"kills\"}}");
+        assertUnsupported("{\"selector\":\"@p\"}");
+        assertUnsupported("{\"keybind\":\"key.jump\"}");
+        assertUnsupported("{\"text\":\"Hello \",\"extra\":[{\"selector\":\"@a\"}]}");
+    }
+
+    private static void assertRejected(final String json) {
+
+        try {
+            JChat.fromJSON(json);
+            fail("Expected " + json + " to be rejected");
+        } catch (IllegalArgumentException ignored) {
+            //Expected
+        }
+    }
+
+    private static void assertUnsupported(final String json) {
+
+        try {
+            JChat.fromJSON(new StringReader(json));
+            fail("Expected " + json + " to be rejected");
+        } catch (IOException ignored) {
+            //Expected
+        }
+    }
+}